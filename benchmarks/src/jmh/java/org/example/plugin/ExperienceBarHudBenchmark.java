@@ -0,0 +1,88 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of an XP grant as the HUD sees it: updating the state, marking the HUD
+ * dirty, and building the UI update the flusher sends. The stand-in HUD drops
+ * the update instead of sending a packet, so this measures only our side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ExperienceBarHudBenchmark {
+
+    // 1: the bar moves by less than a pixel most of the time; 1000: a level up on almost every grant
+    @Param({"1", "25", "1000"})
+    public int amount;
+
+    private PlayerXPState state;
+    private XPHudFlusher flusher;
+    private ExperienceBarHud hud;
+
+    @Setup
+    public void setup() {
+        state = new PlayerXPState(LevelCurve.DEFAULT, 0);
+        flusher = new XPHudFlusher();
+        hud = new ExperienceBarHud(new PlayerRef(UUID.randomUUID(), "bench"), flusher, state, new XPLeaderboard(),
+                new LevelUpNotifier(500, 10));
+        hud.build(new UICommandBuilder());
+    }
+
+    @Setup(Level.Iteration)
+    public void resetXP() {
+        // Start every iteration low on the curve so all iterations see the same level sizes
+        state.reset();
+        flusher.flush();
+    }
+
+    /**
+     * A grant without the flush, as on the world thread.
+     */
+    @Benchmark
+    public int grant() {
+        PlayerXPState.Change change = state.add(amount);
+        hud.onExperienceGained(change);
+        return change.getLevelsGained();
+    }
+
+    /**
+     * A grant followed by the flush that diffs and sends the display.
+     */
+    @Benchmark
+    public long grantAndFlush() {
+        PlayerXPState.Change change = state.add(amount);
+        hud.onExperienceGained(change);
+        flusher.flush();
+        return hud.getUpdatesSent();
+    }
+
+    /**
+     * A full rebuild of the document, as when the HUD is first shown.
+     */
+    @Benchmark
+    public UICommandBuilder build() {
+        UICommandBuilder commandBuilder = new UICommandBuilder();
+        hud.build(commandBuilder);
+        return commandBuilder;
+    }
+}
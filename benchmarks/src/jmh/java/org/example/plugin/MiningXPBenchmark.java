@@ -0,0 +1,121 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.component.ArchetypeChunk;
+import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType;
+import com.hypixel.hytale.server.core.event.events.ecs.BreakBlockEvent;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one block break through {@link MiningXPSystem#handle}, with the default
+ * mining_rules.json, over a mix of blocks and tools that do and don't give XP.
+ * {@link #classifyBaseline} keeps the original stream and toLowerCase check for
+ * comparison with {@link #classify}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MiningXPBenchmark {
+
+    // Block and tool in hand per break; null means an empty hand
+    private static final String[][] BREAKS = {
+            {"Ore_Iron", "Tool_Pickaxe_Iron"},
+            {"Rock_Stone", "Tool_Pickaxe_Crude"},
+            {"Soil_Dirt", "Tool_Pickaxe_Iron"},
+            {"Wood_Oak_Trunk", "Tool_Hatchet_Iron"},
+            {"Ore_Gold", null},
+            {"Plant_Grass", "Tool_Pickaxe_Iron"},
+            {"Rock_Granite", "Tool_Shovel_Iron"},
+            {"Ore_Copper", "Tool_Pickaxe_Copper"},
+    };
+
+    // The block and tool names the original MiningXPSystem matched, case-insensitively
+    private static final Set<String> BASELINE_BLOCKS = Set.of("Stone", "Rock", "Dirt", "Cobblestone", "Granite", "Sandstone", "Ore");
+    private static final Set<String> BASELINE_TOOLS = Set.of("Pickaxe", "Pick");
+
+    private MiningXPSystem system;
+    private MiningRuleTable table;
+    private BreakBlockEvent[] events;
+    private ArchetypeChunk<EntityStore> chunk;
+    private PendingXP pending;
+    private final Store<EntityStore> store = new Store<>();
+    private final CommandBuffer<EntityStore> commandBuffer = new CommandBuffer<>();
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        MiningRules rules = new MiningRules(Files.createTempDirectory("xp-bench-rules"));
+        rules.load();
+        table = rules.current();
+        system = new MiningXPSystem(rules);
+
+        ComponentType<EntityStore, PendingXP> pendingType = new ComponentType<>();
+        PendingXP.setComponentType(pendingType);
+        pending = new PendingXP();
+        chunk = new ArchetypeChunk<>();
+        chunk.putComponent(pendingType, pending);
+
+        events = new BreakBlockEvent[BREAKS.length];
+        for (int i = 0; i < BREAKS.length; i++) {
+            events[i] = new BreakBlockEvent(new BlockType(BREAKS[i][0]), new ItemStack(BREAKS[i][1]));
+        }
+    }
+
+    /**
+     * The whole event handler, including queueing the XP on the player's PendingXP.
+     */
+    @Benchmark
+    public int handle() {
+        BreakBlockEvent event = events[next++ & (BREAKS.length - 1)];
+        system.handle(0, chunk, store, commandBuffer, event);
+        return pending.drain();
+    }
+
+    /**
+     * Only the block/tool lookup in the compiled rules.
+     */
+    @Benchmark
+    public int classify() {
+        String[] blockAndTool = BREAKS[next++ & (BREAKS.length - 1)];
+        return blockAndTool[1] == null ? 0 : table.xpFor(blockAndTool[0], blockAndTool[1]);
+    }
+
+    /**
+     * The block/tool check the rule table replaced: a stream over each name set,
+     * lower-casing both sides on every comparison.
+     */
+    @Benchmark
+    public int classifyBaseline() {
+        String[] blockAndTool = BREAKS[next++ & (BREAKS.length - 1)];
+        String blockId = blockAndTool[0];
+        if (!BASELINE_BLOCKS.stream().anyMatch(type -> blockId.toLowerCase().contains(type.toLowerCase()))) {
+            return 0;
+        }
+        String itemId = blockAndTool[1];
+        if (itemId == null) {
+            return 0;
+        }
+        return BASELINE_TOOLS.stream().anyMatch(type -> itemId.toLowerCase().contains(type.toLowerCase())) ? 1 : 0;
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.plugin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of the parts of {@link BinaryXPStore}, the default store behind
+ * {@link ExperienceManager#saveData()}, at different store sizes.
+ *
+ * They are driven directly on a temporary directory: saveData appends the
+ * dirty records to the journal, loadData opens the snapshot index and replays
+ * the journal as the store does on startup, and compaction writes a whole new
+ * snapshot. {@link XPStoreBenchmark} compares the store types. Each operation is
+ * timed once per iteration, since the large sizes take far longer than a tick.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int records;
+
+    @Param({"false", "true"})
+    public boolean compressed;
+
+    private Path dir;
+    private Map<UUID, PlayerXPData> data;
+    private Path snapshotFile;
+    private Path journalDir;
+    private XPJournal journal;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("xp-bench-store");
+        SplittableRandom random = new SplittableRandom(42);
+        data = new HashMap<>(records * 2);
+        for (int i = 0; i < records; i++) {
+            int level = 1 + random.nextInt(200);
+            data.put(new UUID(random.nextLong(), random.nextLong()),
+                    new PlayerXPData(level, random.nextInt(100 * level), 100L * level));
+        }
+
+        snapshotFile = dir.resolve("xp_data.bin");
+        XPBinaryFormat.write(snapshotFile, data, compressed);
+
+        // A journal holding every player, as after a session with no compaction
+        XPJournal full = new XPJournal(dir.resolve("replay"));
+        full.open();
+        full.append(data);
+        full.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void openJournal() throws IOException {
+        journalDir = Files.createTempDirectory(dir, "journal");
+        journal = new XPJournal(journalDir);
+        journal.open();
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeJournal() throws IOException {
+        journal.close();
+        deleteRecursively(journalDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        deleteRecursively(dir);
+    }
+
+    /**
+     * saveData with every player dirty: one journal append and fsync.
+     */
+    @Benchmark
+    public XPJournal saveData() throws IOException {
+        journal.append(data);
+        return journal;
+    }
+
+    /**
+     * loadData: open the snapshot index and replay the journal into the pending table.
+     */
+    @Benchmark
+    public int loadData() throws IOException {
+        UUIDXPTable pending = new UUIDXPTable();
+        try (XPSnapshotReader snapshot = XPSnapshotReader.open(snapshotFile)) {
+            new XPJournal(dir.resolve("replay")).replayAll(pending::put);
+            return snapshot.size() + pending.size();
+        }
+    }
+
+    /**
+     * Writing a whole snapshot, as compaction does.
+     */
+    @Benchmark
+    public Path writeSnapshot() throws IOException {
+        Path file = journalDir.resolve("xp_data.bin");
+        XPBinaryFormat.write(file, data, compressed);
+        return file;
+    }
+
+    /**
+     * Reading every snapshot record in order, as compaction and the leaderboard rebuild do.
+     */
+    @Benchmark
+    public long scanSnapshot() throws IOException {
+        long[] total = new long[1];
+        try (XPSnapshotReader snapshot = XPSnapshotReader.open(snapshotFile)) {
+            snapshot.forEach((playerId, record) -> total[0] += record.getCurrentXP());
+        }
+        return total[0];
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.plugin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Saving and loading every record as a binary snapshot, flat or compressed,
+ * against the JSON file it replaced. Setup prints each file's size.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SnapshotFormatBenchmark {
+
+    @Param({"binary", "compressed", "json"})
+    public String format;
+
+    @Param({"100000", "1000000"})
+    public int records;
+
+    private Path dir;
+    private Map<UUID, PlayerXPData> data;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("xp-bench-format");
+        SplittableRandom random = new SplittableRandom(42);
+        data = new HashMap<>(records * 2);
+        for (int i = 0; i < records; i++) {
+            int level = 1 + random.nextInt(200);
+            data.put(new UUID(random.nextLong(), random.nextLong()),
+                    new PlayerXPData(level, random.nextInt(100 * level), 100L * level));
+        }
+        file = dir.resolve(format.equals("json") ? "xp_data.json" : "xp_data.bin");
+        save();
+        System.out.println(format + ", " + records + " records: " + Files.size(file) + " bytes");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Writing every record to a new file.
+     */
+    @Benchmark
+    public Path save() throws IOException {
+        if (format.equals("json")) {
+            try (XPJsonFormat.Writer writer = new XPJsonFormat.Writer(file)) {
+                for (Map.Entry<UUID, PlayerXPData> entry : data.entrySet()) {
+                    writer.add(entry.getKey(), entry.getValue());
+                }
+                writer.commit();
+            }
+        } else {
+            XPBinaryFormat.write(file, data, format.equals("compressed"));
+        }
+        return file;
+    }
+
+    /**
+     * Reading every record back into a table.
+     */
+    @Benchmark
+    public int load() throws IOException {
+        UUIDXPTable table = new UUIDXPTable();
+        if (format.equals("json")) {
+            XPJsonFormat.read(file, table::put);
+        } else {
+            try (XPSnapshotReader snapshot = XPSnapshotReader.open(file)) {
+                snapshot.forEach(table::put);
+            }
+        }
+        return table.size();
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.plugin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The {@link XPStore} implementations side by side: one write-behind flush
+ * of {@link #DIRTY} changed players, and a single player's lookup, against
+ * stores already holding {@code records} players.
+ *
+ * The JSON store rewrites its whole file on every flush, so its flush cost
+ * grows with the store; the binary and SQLite stores only write the changed
+ * records.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class XPStoreBenchmark {
+
+    // Players written per flush, roughly a busy server's changes per flush interval
+    static final int DIRTY = 1000;
+
+    @Param({"binary", "json", "sqlite"})
+    public String store;
+
+    @Param({"10000", "1000000"})
+    public int records;
+
+    private Path dir;
+    private XPStore target;
+    private UUID[] ids;
+    private final List<Map<UUID, PlayerXPData>> flushes = new ArrayList<>();
+    private int next;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        dir = Files.createTempDirectory("xp-bench-" + store);
+        target = switch (store) {
+            case "json" -> new JsonXPStore(dir);
+            case "sqlite" -> new SqliteXPStore(dir, 4);
+            default -> new BinaryXPStore(dir, false, 4L * 1024 * 1024);
+        };
+        target.open(settled -> { }, (playerId, data) -> { }, Runnable::run);
+
+        SplittableRandom random = new SplittableRandom(42);
+        ids = new UUID[records];
+        Map<UUID, PlayerXPData> batch = new HashMap<>();
+        for (int i = 0; i < records; i++) {
+            ids[i] = new UUID(random.nextLong(), random.nextLong());
+            batch.put(ids[i], record(random));
+            if (batch.size() == 100_000 || i == records - 1) {
+                target.upsertBatch(batch);
+                batch.clear();
+            }
+        }
+        target.settle();
+
+        // A fixed rotation of flushes, each touching a different random set of stored players
+        for (int i = 0; i < 16; i++) {
+            Map<UUID, PlayerXPData> flush = new HashMap<>();
+            while (flush.size() < DIRTY) {
+                flush.put(ids[random.nextInt(records)], record(random));
+            }
+            flushes.add(flush);
+        }
+    }
+
+    private static PlayerXPData record(SplittableRandom random) {
+        int level = 1 + random.nextInt(200);
+        return new PlayerXPData(level, random.nextInt(100 * level), 100L * level);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        target.close();
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * One write-behind flush: upserting the changed players.
+     */
+    @Benchmark
+    public XPStore upsertDirty() throws IOException {
+        target.upsertBatch(flushes.get(next++ & 15));
+        return target;
+    }
+
+    /**
+     * Loading one stored player, as on join.
+     */
+    @Benchmark
+    public PlayerXPData load() throws IOException {
+        return target.load(ids[Math.floorMod(next++ * 7919, records)]);
+    }
+}
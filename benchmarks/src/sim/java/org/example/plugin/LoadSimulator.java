@@ -0,0 +1,363 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.component.ArchetypeChunk;
+import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType;
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.event.events.ecs.BreakBlockEvent;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+import com.hypixel.hytale.server.core.io.PacketHandler;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless load test: virtual players mining, joining and leaving, driven
+ * through the real {@link MiningXPSystem}, {@link PendingXPSystem},
+ * {@link ExperienceManager} and {@link ExperienceBarHud}.
+ *
+ * Hytale classes are the stand-ins from src/stubs, and packets are counted by
+ * the stand-in PacketHandler instead of sent. Each world is a thread ticking
+ * its players 20 times a second, like a world thread on a real server. The
+ * population grows in stages, and each stage reports break throughput, tick
+ * and break latency, outbound packets and heap use, so the population at
+ * which ticks stop fitting in 50ms is easy to spot.
+ *
+ * Run with {@code ./gradlew -p benchmarks simulate}; see build.gradle for the options.
+ */
+public final class LoadSimulator {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final float TICK_SECONDS = 0.05f;
+
+    // New players per world per tick, so a stage's arrivals are spread over a few seconds
+    private static final int MAX_JOINS_PER_TICK = 25;
+
+    // How long a stage may take to reach its population before it is measured anyway
+    private static final long RAMP_TIMEOUT_MS = 60_000;
+
+    // Block and tool in hand per break, mostly ones that give XP; null means an empty hand
+    private static final String[][] BREAKS = {
+            {"Ore_Iron", "Tool_Pickaxe_Iron"},
+            {"Rock_Stone", "Tool_Pickaxe_Crude"},
+            {"Rock_Stone", "Tool_Pickaxe_Iron"},
+            {"Soil_Dirt", "Tool_Pickaxe_Iron"},
+            {"Wood_Oak_Trunk", "Tool_Hatchet_Iron"},
+            {"Ore_Gold", null},
+            {"Rock_Granite", "Tool_Shovel_Iron"},
+            {"Ore_Copper", "Tool_Pickaxe_Copper"},
+    };
+
+    private final Options options;
+    private final ExperienceManager manager;
+    private final MiningXPSystem mining;
+    private final PendingXPSystem pendingSystem = new PendingXPSystem();
+    private final Store<EntityStore> store = new Store<>();
+    private final BreakBlockEvent[] events;
+    private final List<SimWorld> worlds = new ArrayList<>();
+
+    // Players who left; some come back, so stored records are loaded as well as new ones created
+    private final Queue<UUID> offline = new ConcurrentLinkedQueue<>();
+
+    // Totals since startup; a stage reports the difference
+    private final LongAdder breaks = new LongAdder();
+    private final LongAdder lateTicks = new LongAdder();
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private final LatencyHistogram breakTimes = new LatencyHistogram();
+
+    private volatile boolean running = true;
+
+    private LoadSimulator(Options options) {
+        this.options = options;
+        this.manager = ExperienceManager.getInstance();
+        manager.start(new XPConfig());
+
+        MiningRules rules = new MiningRules(ExperienceManager.DATA_DIR);
+        rules.load();
+        this.mining = new MiningXPSystem(rules);
+
+        events = new BreakBlockEvent[BREAKS.length];
+        for (int i = 0; i < BREAKS.length; i++) {
+            events[i] = new BreakBlockEvent(new BlockType(BREAKS[i][0]), new ItemStack(BREAKS[i][1]));
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Options options = Options.parse(args);
+        // Registered by ExamplePlugin.setup() on a real server
+        PendingXP.setComponentType(new ComponentType<>());
+        new LoadSimulator(options).run();
+        System.exit(0);
+    }
+
+    private void run() throws InterruptedException {
+        System.out.printf(Locale.ROOT, "%d worlds, %.1f breaks/s per player, %.0f%% of players replaced per minute%n",
+                options.worlds, options.breaksPerSecond, options.churnPerMinute * 100);
+        long baselineHeap = liveHeap();
+
+        for (int i = 0; i < options.worlds; i++) {
+            SimWorld world = new SimWorld("sim-" + i);
+            worlds.add(world);
+            world.thread.start();
+        }
+
+        if (options.warmupSeconds > 0) {
+            System.out.println("Warming up with " + options.players[0] + " players for " + options.warmupSeconds + "s...");
+            setPopulation(options.players[0]);
+            Thread.sleep(TimeUnit.SECONDS.toMillis(options.warmupSeconds));
+        }
+
+        System.out.printf(Locale.ROOT, "%n%8s %8s %9s %9s %9s %9s %6s %9s %9s %8s %8s %8s%n",
+                "players", "online", "breaks/s", "target/s", "tick p50", "tick p99", "late", "break p99",
+                "packets/s", "per plr", "heap MB", "KB/plr");
+        int saturatedAt = -1;
+        for (int population : options.players) {
+            setPopulation(population);
+
+            long breaksBefore = breaks.sum();
+            long lateBefore = lateTicks.sum();
+            long packetsBefore = PacketHandler.packetsSent();
+            LatencyHistogram.Snapshot ticksBefore = tickTimes.snapshot();
+            LatencyHistogram.Snapshot breaksTimedBefore = breakTimes.snapshot();
+            long start = System.nanoTime();
+
+            Thread.sleep(TimeUnit.SECONDS.toMillis(options.seconds));
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            LatencyHistogram.Snapshot ticks = tickTimes.snapshot().since(ticksBefore);
+            LatencyHistogram.Snapshot breakSnapshot = breakTimes.snapshot().since(breaksTimedBefore);
+            double breakRate = (breaks.sum() - breaksBefore) / seconds;
+            double packetRate = (PacketHandler.packetsSent() - packetsBefore) / seconds;
+            long late = lateTicks.sum() - lateBefore;
+            int online = manager.xpBars().size();
+            long heap = liveHeap();
+
+            System.out.printf(Locale.ROOT, "%8d %8d %9.0f %9.0f %9s %9s %5.1f%% %9s %9.0f %8.2f %8.1f %8.1f%n",
+                    population, online, breakRate, population * options.breaksPerSecond,
+                    XPMetrics.formatNanos(ticks.percentile(50)), XPMetrics.formatNanos(ticks.percentile(99)),
+                    ticks.count() == 0 ? 0.0 : 100.0 * late / ticks.count(),
+                    XPMetrics.formatNanos(breakSnapshot.percentile(99)),
+                    packetRate, packetRate / Math.max(1, online),
+                    heap / (1024.0 * 1024.0), (heap - baselineHeap) / 1024.0 / Math.max(1, population));
+            if (saturatedAt < 0 && ticks.percentile(99) > TICK_NANOS) {
+                saturatedAt = population;
+            }
+        }
+
+        System.out.println();
+        System.out.println(saturatedAt < 0
+                ? "Ticks stayed within 50ms at p99 for every stage."
+                : "Ticks first went over 50ms at p99 with " + saturatedAt + " players.");
+
+        running = false;
+        for (SimWorld world : worlds) {
+            world.thread.join();
+        }
+        manager.shutdown();
+
+        System.out.println();
+        System.out.println("Plugin metrics for the whole run:");
+        for (String line : XPMetrics.get().report()) {
+            System.out.println("  " + line);
+        }
+    }
+
+    /**
+     * Spreads {@code population} over the worlds and waits until they have all joined.
+     */
+    private void setPopulation(int population) throws InterruptedException {
+        for (int i = 0; i < worlds.size(); i++) {
+            worlds.get(i).target = population / worlds.size() + (i < population % worlds.size() ? 1 : 0);
+        }
+        long deadline = System.currentTimeMillis() + RAMP_TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            int online = 0;
+            for (SimWorld world : worlds) {
+                online += world.online;
+            }
+            if (online == population && manager.xpBars().size() >= population) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        System.out.println("  (gave up waiting for " + population + " players to join)");
+    }
+
+    private static long liveHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * A world thread and the players on it. Players are only touched by their world's thread.
+     */
+    private final class SimWorld implements Runnable {
+
+        private final World world;
+        private final Thread thread;
+        private final List<VirtualPlayer> players = new ArrayList<>();
+        private final CommandBuffer<EntityStore> commandBuffer = new CommandBuffer<>();
+        private final double breaksPerTick = options.breaksPerSecond * TICK_SECONDS;
+        private final double churnPerTick = options.churnPerMinute / (60 / TICK_SECONDS);
+
+        // Set by the coordinator; reached a few joins per tick
+        private volatile int target;
+        private volatile int online;
+
+        SimWorld(String name) {
+            this.world = new World(name);
+            this.thread = new Thread(this, name);
+        }
+
+        @Override
+        public void run() {
+            long next = System.nanoTime();
+            while (running) {
+                long start = System.nanoTime();
+                tick();
+                long end = System.nanoTime();
+                tickTimes.record(end - start);
+
+                next += TICK_NANOS;
+                if (next - end < 0) {
+                    lateTicks.increment();
+                    next = end; // Start the next tick right away, without trying to catch up
+                } else {
+                    LockSupport.parkNanos(next - end);
+                }
+            }
+            for (VirtualPlayer player : players) {
+                manager.removePlayer(player.ref.getUuid());
+            }
+        }
+
+        private void tick() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            // Some players leave, and others take their place
+            for (int i = players.size() - 1; i >= 0; i--) {
+                if (random.nextDouble() < churnPerTick) {
+                    leave(i);
+                    join(random);
+                }
+            }
+            for (int joinsLeft = MAX_JOINS_PER_TICK; players.size() < target && joinsLeft > 0; joinsLeft--) {
+                join(random);
+            }
+            while (players.size() > target) {
+                leave(players.size() - 1);
+            }
+            online = players.size();
+
+            // Block breaks, a random number per player averaging breaksPerSecond
+            for (VirtualPlayer player : players) {
+                player.breakCredit += breaksPerTick * 2 * random.nextDouble();
+                while (player.breakCredit >= 1) {
+                    player.breakCredit -= 1;
+                    BreakBlockEvent event = events[random.nextInt(events.length)];
+                    long start = System.nanoTime();
+                    mining.handle(0, player.chunk, store, commandBuffer, event);
+                    breakTimes.record(System.nanoTime() - start);
+                    breaks.increment();
+                }
+            }
+
+            // Then the pending XP system, once per player per tick
+            for (VirtualPlayer player : players) {
+                pendingSystem.tick(TICK_SECONDS, 0, player.chunk, store, commandBuffer);
+            }
+        }
+
+        private void join(ThreadLocalRandom random) {
+            UUID playerId = random.nextBoolean() ? offline.poll() : null;
+            if (playerId == null) {
+                playerId = UUID.randomUUID();
+            }
+            VirtualPlayer player = new VirtualPlayer(playerId, world);
+            players.add(player);
+            manager.initializePlayer(player.player, player.ref);
+        }
+
+        private void leave(int index) {
+            VirtualPlayer player = players.get(index);
+            players.set(index, players.get(players.size() - 1));
+            players.remove(players.size() - 1);
+            manager.removePlayer(player.ref.getUuid());
+            offline.add(player.ref.getUuid());
+        }
+    }
+
+    /**
+     * One simulated player: an entity holding the components the XP systems read.
+     */
+    private static final class VirtualPlayer {
+
+        private final PlayerRef ref;
+        private final Player player;
+        private final ArchetypeChunk<EntityStore> chunk = new ArchetypeChunk<>();
+        private double breakCredit;
+
+        VirtualPlayer(UUID playerId, World world) {
+            this.ref = new PlayerRef(playerId, "sim-" + playerId.toString().substring(0, 8));
+            this.player = new Player(ref, world);
+            chunk.putComponent(PlayerRef.getComponentType(), ref);
+            chunk.putComponent(PendingXP.getComponentType(), new PendingXP());
+        }
+    }
+
+    /**
+     * Command line options, each given as --name=value.
+     */
+    private static final class Options {
+
+        // Population of each stage, in order
+        int[] players = {100, 500, 1000, 2500, 5000};
+        int seconds = 20;
+        int warmupSeconds = 10;
+        int worlds = 4;
+        double breaksPerSecond = 1.5;
+        // Fraction of the players replaced by others each minute
+        double churnPerMinute = 0.1;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (!arg.startsWith("--") || eq < 0) {
+                    throw new IllegalArgumentException("Expected --name=value, got " + arg);
+                }
+                String value = arg.substring(eq + 1);
+                switch (arg.substring(2, eq)) {
+                    case "players" -> {
+                        String[] parts = value.split(",");
+                        options.players = new int[parts.length];
+                        for (int i = 0; i < parts.length; i++) {
+                            options.players[i] = Integer.parseInt(parts[i].trim());
+                        }
+                    }
+                    case "seconds" -> options.seconds = Integer.parseInt(value);
+                    case "warmup" -> options.warmupSeconds = Integer.parseInt(value);
+                    case "worlds" -> options.worlds = Math.max(1, Integer.parseInt(value));
+                    case "breaks" -> options.breaksPerSecond = Double.parseDouble(value);
+                    case "churn" -> options.churnPerMinute = Double.parseDouble(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            return options;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.plugin;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Heap retained by {@link UUIDXPTable} against the {@code ConcurrentHashMap<String, PlayerXPData>}
+ * it replaced, at each of the given record counts (100k and 1M by default).
+ *
+ * Each structure is filled with the same random records and measured as the
+ * growth in used heap after full collections, so it includes every key, node
+ * and record object, not just the arrays.
+ *
+ * Run with {@code ./gradlew -p benchmarks footprint}.
+ */
+public final class TableFootprint {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private TableFootprint() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String[] counts = args.length > 0 ? args : new String[]{"100000", "1000000"};
+        for (String count : counts) {
+            int records = Integer.parseInt(count);
+            report(records, "UUIDXPTable", measure(() -> {
+                UUIDXPTable table = new UUIDXPTable();
+                fill(records, table::put);
+                return table;
+            }));
+            report(records, "ConcurrentHashMap<String, PlayerXPData>", measure(() -> {
+                Map<String, PlayerXPData> map = new ConcurrentHashMap<>();
+                fill(records, (playerId, data) -> map.put(playerId.toString(), data));
+                return map;
+            }));
+        }
+    }
+
+    private interface Sink {
+        void put(UUID playerId, PlayerXPData data);
+    }
+
+    private static void fill(int records, Sink sink) {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < records; i++) {
+            int level = 1 + random.nextInt(200);
+            sink.put(new UUID(random.nextLong(), random.nextLong()),
+                    new PlayerXPData(level, random.nextInt(100 * level), 100L * level));
+        }
+    }
+
+    private static long measure(Supplier<Object> build) throws InterruptedException {
+        long before = usedAfterGC();
+        Object built = build.get();
+        long after = usedAfterGC();
+        Reference.reachabilityFence(built);
+        return after - before;
+    }
+
+    private static long usedAfterGC() throws InterruptedException {
+        long used = Long.MAX_VALUE;
+        // Repeated until the heap stops shrinking, so garbage from filling is gone
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            Thread.sleep(50);
+            long now = MEMORY.getHeapMemoryUsage().getUsed();
+            if (now >= used) {
+                return now;
+            }
+            used = now;
+        }
+        return used;
+    }
+
+    private static void report(int records, String structure, long bytes) {
+        System.out.printf(Locale.ROOT, "%,9d records  %-40s %7.1f MB  %5.1f bytes/record%n",
+                records, structure, bytes / 1e6, (double) bytes / records);
+    }
+}
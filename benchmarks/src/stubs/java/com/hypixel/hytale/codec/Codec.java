@@ -0,0 +1,7 @@
+package com.hypixel.hytale.codec;
+
+public interface Codec<T> {
+    Codec<Integer> INTEGER = new Codec<>() {};
+    Codec<Long> LONG = new Codec<>() {};
+    Codec<String> STRING = new Codec<>() {};
+}
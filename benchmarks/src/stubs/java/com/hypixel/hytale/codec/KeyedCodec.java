@@ -0,0 +1,6 @@
+package com.hypixel.hytale.codec;
+
+public class KeyedCodec<T> {
+    public KeyedCodec(String key, Codec<T> codec) {
+    }
+}
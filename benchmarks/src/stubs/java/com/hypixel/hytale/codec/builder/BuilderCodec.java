@@ -0,0 +1,25 @@
+package com.hypixel.hytale.codec.builder;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class BuilderCodec<T> implements Codec<T> {
+
+    public static <T> Builder<T> builder(Class<T> type, Supplier<T> constructor) {
+        return new Builder<>();
+    }
+
+    public static class Builder<T> {
+        public <F> Builder<T> addField(KeyedCodec<F> key, BiConsumer<T, F> setter, Function<T, F> getter) {
+            return this;
+        }
+
+        public BuilderCodec<T> build() {
+            return new BuilderCodec<>();
+        }
+    }
+}
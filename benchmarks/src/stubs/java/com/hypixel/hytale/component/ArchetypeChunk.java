@@ -0,0 +1,30 @@
+package com.hypixel.hytale.component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A chunk holding a single entity, whose components are whatever was put in.
+ */
+public class ArchetypeChunk<S> {
+
+    private final Ref<S> ref = new Ref<>();
+    private final Map<ComponentType<S, ?>, Component<S>> components = new HashMap<>();
+
+    public <T extends Component<S>> void putComponent(ComponentType<S, T> type, T component) {
+        components.put(type, component);
+    }
+
+    public Ref<S> getReferenceTo(int index) {
+        return ref;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends Component<S>> T getComponent(int index, ComponentType<S, T> type) {
+        return (T) components.get(type);
+    }
+
+    public int size() {
+        return 1;
+    }
+}
@@ -0,0 +1,21 @@
+package com.hypixel.hytale.component;
+
+/**
+ * Counts queued component additions instead of applying them.
+ */
+public class CommandBuffer<S> {
+
+    private int added;
+
+    public <T extends Component<S>> void addComponent(Ref<S> ref, ComponentType<S, T> type, T component) {
+        added++;
+    }
+
+    public <T extends Component<S>> T getComponent(Ref<S> ref, ComponentType<S, T> type) {
+        return null;
+    }
+
+    public int addedComponents() {
+        return added;
+    }
+}
@@ -0,0 +1,5 @@
+package com.hypixel.hytale.component;
+
+public interface Component<S> extends Cloneable {
+    Component<S> clone();
+}
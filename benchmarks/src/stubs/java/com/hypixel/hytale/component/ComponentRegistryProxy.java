@@ -0,0 +1,13 @@
+package com.hypixel.hytale.component;
+
+import java.util.function.Supplier;
+
+public class ComponentRegistryProxy<S> {
+
+    public void registerSystem(Object system) {
+    }
+
+    public <T extends Component<S>> ComponentType<S, T> registerComponent(Class<T> type, Supplier<T> constructor) {
+        return new ComponentType<>();
+    }
+}
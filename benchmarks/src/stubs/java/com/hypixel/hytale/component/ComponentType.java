@@ -0,0 +1,6 @@
+package com.hypixel.hytale.component;
+
+import com.hypixel.hytale.component.query.Query;
+
+public class ComponentType<S, T extends Component<S>> implements Query<S> {
+}
@@ -0,0 +1,7 @@
+package com.hypixel.hytale.component;
+
+public class Store<S> {
+    public <T extends Component<S>> T getComponent(Ref<S> ref, ComponentType<S, T> type) {
+        return null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.hypixel.hytale.component.query;
+
+public interface Query<S> {
+    @SafeVarargs
+    static <S> Query<S> and(Query<S>... queries) {
+        return new Query<>() {};
+    }
+}
@@ -0,0 +1,4 @@
+package com.hypixel.hytale.component.system;
+
+public class EcsEvent {
+}
@@ -0,0 +1,16 @@
+package com.hypixel.hytale.component.system;
+
+import com.hypixel.hytale.component.ArchetypeChunk;
+import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.query.Query;
+
+public abstract class EntityEventSystem<S, E extends EcsEvent> {
+
+    protected EntityEventSystem(Class<E> eventType) {
+    }
+
+    public abstract Query<S> getQuery();
+
+    public abstract void handle(int index, ArchetypeChunk<S> chunk, Store<S> store, CommandBuffer<S> commandBuffer, E event);
+}
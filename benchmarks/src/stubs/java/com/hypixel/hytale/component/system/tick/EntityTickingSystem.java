@@ -0,0 +1,13 @@
+package com.hypixel.hytale.component.system.tick;
+
+import com.hypixel.hytale.component.ArchetypeChunk;
+import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.query.Query;
+
+public abstract class EntityTickingSystem<S> {
+
+    public abstract Query<S> getQuery();
+
+    public abstract void tick(float dt, int index, ArchetypeChunk<S> chunk, Store<S> store, CommandBuffer<S> commandBuffer);
+}
@@ -0,0 +1,8 @@
+package com.hypixel.hytale.event;
+
+import java.util.function.Consumer;
+
+public class EventRegistry {
+    public <E> void register(Class<E> type, Consumer<E> handler) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.hypixel.hytale.logger;
+
+/**
+ * Discards everything, so logging never shows up in a measurement.
+ */
+public class HytaleLogger {
+
+    private static final Api API = new Api();
+
+    public static HytaleLogger forEnclosingClass() {
+        return new HytaleLogger();
+    }
+
+    public Api atInfo() {
+        return API;
+    }
+
+    public Api atWarning() {
+        return API;
+    }
+
+    public Api atFine() {
+        return API;
+    }
+
+    public Api atSevere() {
+        return API;
+    }
+
+    public static class Api {
+        public void log(String message) {
+        }
+
+        public Api withCause(Throwable cause) {
+            return this;
+        }
+    }
+}
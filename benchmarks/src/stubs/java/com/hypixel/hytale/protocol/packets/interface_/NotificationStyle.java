@@ -0,0 +1,8 @@
+package com.hypixel.hytale.protocol.packets.interface_;
+
+public enum NotificationStyle {
+    Default,
+    Success,
+    Warning,
+    Danger
+}
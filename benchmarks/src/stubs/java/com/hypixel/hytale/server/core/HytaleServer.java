@@ -0,0 +1,12 @@
+package com.hypixel.hytale.server.core;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+public class HytaleServer {
+    public static final ScheduledExecutorService SCHEDULED_EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "HytaleServer-Scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+}
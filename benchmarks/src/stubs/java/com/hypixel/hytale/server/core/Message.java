@@ -0,0 +1,26 @@
+package com.hypixel.hytale.server.core;
+
+/**
+ * Holds the raw text, so building a message costs what the real one does at minimum.
+ */
+public class Message {
+
+    private final String text;
+
+    private Message(String text) {
+        this.text = text;
+    }
+
+    public static Message raw(String text) {
+        return new Message(text);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
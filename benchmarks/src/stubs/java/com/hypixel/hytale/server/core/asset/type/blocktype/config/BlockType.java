@@ -0,0 +1,14 @@
+package com.hypixel.hytale.server.core.asset.type.blocktype.config;
+
+public class BlockType {
+
+    private final String id;
+
+    public BlockType(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,21 @@
+package com.hypixel.hytale.server.core.command.system;
+
+import com.hypixel.hytale.server.core.Message;
+
+public class CommandContext {
+
+    public boolean isPlayer() {
+        return false;
+    }
+
+    public <T> T senderAs(Class<T> type) {
+        return null;
+    }
+
+    public CommandSender sender() {
+        return permission -> true;
+    }
+
+    public void sendMessage(Message message) {
+    }
+}
@@ -0,0 +1,6 @@
+package com.hypixel.hytale.server.core.command.system;
+
+public class CommandRegistry {
+    public void registerCommand(Object command) {
+    }
+}
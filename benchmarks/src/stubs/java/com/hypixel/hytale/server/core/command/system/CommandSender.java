@@ -0,0 +1,6 @@
+package com.hypixel.hytale.server.core.command.system;
+
+public interface CommandSender {
+
+    boolean hasPermission(String permission);
+}
@@ -0,0 +1,14 @@
+package com.hypixel.hytale.server.core.command.system.arguments.system;
+
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+
+public class OptionalArg<T> {
+
+    public T get(CommandContext context) {
+        return null;
+    }
+
+    public boolean provided(CommandContext context) {
+        return false;
+    }
+}
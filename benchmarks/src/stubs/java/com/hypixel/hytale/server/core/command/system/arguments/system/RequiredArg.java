@@ -0,0 +1,10 @@
+package com.hypixel.hytale.server.core.command.system.arguments.system;
+
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+
+public class RequiredArg<T> {
+
+    public T get(CommandContext context) {
+        return null;
+    }
+}
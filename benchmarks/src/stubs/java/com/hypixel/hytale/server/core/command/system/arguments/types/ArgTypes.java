@@ -0,0 +1,7 @@
+package com.hypixel.hytale.server.core.command.system.arguments.types;
+
+public class ArgTypes {
+    public static final ArgumentType<Integer> INTEGER = new ArgumentType<>();
+    public static final ArgumentType<String> STRING = new ArgumentType<>();
+    public static final ArgumentType<Double> DOUBLE = new ArgumentType<>();
+}
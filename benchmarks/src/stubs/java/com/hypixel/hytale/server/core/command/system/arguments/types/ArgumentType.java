@@ -0,0 +1,4 @@
+package com.hypixel.hytale.server.core.command.system.arguments.types;
+
+public class ArgumentType<T> {
+}
@@ -0,0 +1,31 @@
+package com.hypixel.hytale.server.core.command.system.basecommands;
+
+import com.hypixel.hytale.protocol.GameMode;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.arguments.system.DefaultArg;
+import com.hypixel.hytale.server.core.command.system.arguments.system.OptionalArg;
+import com.hypixel.hytale.server.core.command.system.arguments.system.RequiredArg;
+import com.hypixel.hytale.server.core.command.system.arguments.types.ArgumentType;
+
+public abstract class CommandBase {
+
+    public CommandBase(String name, String description) {
+    }
+
+    public void setPermissionGroup(GameMode gameMode) {
+    }
+
+    protected <T> DefaultArg<T> withDefaultArg(String name, String description, ArgumentType<T> type, T defaultValue, String defaultDescription) {
+        return new DefaultArg<>();
+    }
+
+    protected <T> OptionalArg<T> withOptionalArg(String name, String description, ArgumentType<T> type) {
+        return new OptionalArg<>();
+    }
+
+    protected <T> RequiredArg<T> withRequiredArg(String name, String description, ArgumentType<T> type) {
+        return new RequiredArg<>();
+    }
+
+    protected abstract void executeSync(CommandContext context);
+}
@@ -0,0 +1,43 @@
+package com.hypixel.hytale.server.core.entity.entities;
+
+import com.hypixel.hytale.component.Component;
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.server.core.entity.entities.player.hud.HudManager;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+public class Player implements Component<EntityStore> {
+
+    private static final ComponentType<EntityStore, Player> COMPONENT_TYPE = new ComponentType<>();
+
+    private final PlayerRef playerRef;
+    private final World world;
+    private final HudManager hudManager = new HudManager();
+
+    public Player(PlayerRef playerRef, World world) {
+        this.playerRef = playerRef;
+        this.world = world;
+    }
+
+    public static ComponentType<EntityStore, Player> getComponentType() {
+        return COMPONENT_TYPE;
+    }
+
+    public PlayerRef getPlayerRef() {
+        return playerRef;
+    }
+
+    public HudManager getHudManager() {
+        return hudManager;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    @Override
+    public Component<EntityStore> clone() {
+        return this;
+    }
+}
@@ -0,0 +1,26 @@
+package com.hypixel.hytale.server.core.entity.entities.player.hud;
+
+import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+/**
+ * Counts updates on the player's packet handler instead of sending them.
+ */
+public abstract class CustomUIHud {
+
+    private final PlayerRef playerRef;
+
+    public CustomUIHud(PlayerRef playerRef) {
+        this.playerRef = playerRef;
+    }
+
+    protected abstract void build(UICommandBuilder commandBuilder);
+
+    public void update(boolean clear, UICommandBuilder commandBuilder) {
+        playerRef.getPacketHandler().recordPacket();
+    }
+
+    public PlayerRef getPlayerRef() {
+        return playerRef;
+    }
+}
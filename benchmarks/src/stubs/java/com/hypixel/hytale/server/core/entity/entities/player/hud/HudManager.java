@@ -0,0 +1,11 @@
+package com.hypixel.hytale.server.core.entity.entities.player.hud;
+
+import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+public class HudManager {
+    public void setCustomHud(PlayerRef playerRef, CustomUIHud hud) {
+        hud.build(new UICommandBuilder());
+        playerRef.getPacketHandler().recordPacket();
+    }
+}
@@ -0,0 +1,24 @@
+package com.hypixel.hytale.server.core.event.events.ecs;
+
+import com.hypixel.hytale.component.system.EcsEvent;
+import com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+
+public class BreakBlockEvent extends EcsEvent {
+
+    private final BlockType blockType;
+    private final ItemStack itemInHand;
+
+    public BreakBlockEvent(BlockType blockType, ItemStack itemInHand) {
+        this.blockType = blockType;
+        this.itemInHand = itemInHand;
+    }
+
+    public BlockType getBlockType() {
+        return blockType;
+    }
+
+    public ItemStack getItemInHand() {
+        return itemInHand;
+    }
+}
@@ -0,0 +1,20 @@
+package com.hypixel.hytale.server.core.event.events.player;
+
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+
+public class PlayerConnectEvent {
+
+    public Player getPlayer() {
+        return null;
+    }
+
+    public PlayerRef getPlayerRef() {
+        return null;
+    }
+
+    public World getWorld() {
+        return null;
+    }
+}
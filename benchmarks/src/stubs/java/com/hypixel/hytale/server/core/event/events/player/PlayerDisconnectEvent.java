@@ -0,0 +1,10 @@
+package com.hypixel.hytale.server.core.event.events.player;
+
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+public class PlayerDisconnectEvent {
+
+    public PlayerRef getPlayerRef() {
+        return null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.hypixel.hytale.server.core.inventory;
+
+public class ItemStack {
+
+    private final String itemId;
+
+    public ItemStack(String itemId) {
+        this.itemId = itemId;
+    }
+
+    public boolean isEmpty() {
+        return itemId == null;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+}
@@ -0,0 +1,20 @@
+package com.hypixel.hytale.server.core.io;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts packets instead of sending them. The count is shared by every
+ * handler, so packets sent to players who have since left still add up.
+ */
+public class PacketHandler {
+
+    private static final LongAdder SENT = new LongAdder();
+
+    public void recordPacket() {
+        SENT.increment();
+    }
+
+    public static long packetsSent() {
+        return SENT.sum();
+    }
+}
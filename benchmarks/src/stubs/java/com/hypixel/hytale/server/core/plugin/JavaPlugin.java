@@ -0,0 +1,51 @@
+package com.hypixel.hytale.server.core.plugin;
+
+import com.hypixel.hytale.component.ComponentRegistryProxy;
+import com.hypixel.hytale.event.EventRegistry;
+import com.hypixel.hytale.server.core.command.system.CommandRegistry;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+public abstract class JavaPlugin {
+
+    private final CommandRegistry commandRegistry = new CommandRegistry();
+    private final EventRegistry eventRegistry = new EventRegistry();
+    private final ComponentRegistryProxy<EntityStore> entityStoreRegistry = new ComponentRegistryProxy<>();
+
+    public JavaPlugin(JavaPluginInit init) {
+    }
+
+    public String getName() {
+        return getClass().getSimpleName();
+    }
+
+    public Manifest getManifest() {
+        return new Manifest();
+    }
+
+    protected void setup() {
+    }
+
+    protected void start() {
+    }
+
+    protected void shutdown() {
+    }
+
+    public CommandRegistry getCommandRegistry() {
+        return commandRegistry;
+    }
+
+    public EventRegistry getEventRegistry() {
+        return eventRegistry;
+    }
+
+    public ComponentRegistryProxy<EntityStore> getEntityStoreRegistry() {
+        return entityStoreRegistry;
+    }
+
+    public static class Manifest {
+        public Object getVersion() {
+            return "benchmark";
+        }
+    }
+}
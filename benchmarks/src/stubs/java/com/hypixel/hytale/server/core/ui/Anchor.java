@@ -0,0 +1,25 @@
+package com.hypixel.hytale.server.core.ui;
+
+public class Anchor {
+
+    private Value<Integer> left;
+    private Value<Integer> top;
+    private Value<Integer> bottom;
+    private Value<Integer> width;
+
+    public void setLeft(Value<Integer> left) {
+        this.left = left;
+    }
+
+    public void setTop(Value<Integer> top) {
+        this.top = top;
+    }
+
+    public void setBottom(Value<Integer> bottom) {
+        this.bottom = bottom;
+    }
+
+    public void setWidth(Value<Integer> width) {
+        this.width = width;
+    }
+}
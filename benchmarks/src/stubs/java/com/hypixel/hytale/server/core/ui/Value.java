@@ -0,0 +1,18 @@
+package com.hypixel.hytale.server.core.ui;
+
+public class Value<T> {
+
+    private final T value;
+
+    private Value(T value) {
+        this.value = value;
+    }
+
+    public static <T> Value<T> of(T value) {
+        return new Value<>(value);
+    }
+
+    public T get() {
+        return value;
+    }
+}
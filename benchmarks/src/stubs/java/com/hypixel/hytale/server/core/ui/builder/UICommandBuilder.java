@@ -0,0 +1,56 @@
+package com.hypixel.hytale.server.core.ui.builder;
+
+import com.hypixel.hytale.server.core.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records commands as selector/value pairs, like the real builder queues them for the packet.
+ */
+public class UICommandBuilder {
+
+    private final List<Object> commands = new ArrayList<>();
+
+    public void append(String document) {
+        commands.add(document);
+    }
+
+    public void appendInline(String selector, String markup) {
+        commands.add(selector);
+        commands.add(markup);
+    }
+
+    public void remove(String selector) {
+        commands.add(selector);
+    }
+
+    public void set(String selector, Message value) {
+        commands.add(selector);
+        commands.add(value);
+    }
+
+    public void set(String selector, String value) {
+        commands.add(selector);
+        commands.add(value);
+    }
+
+    public void set(String selector, boolean value) {
+        commands.add(selector);
+        commands.add(value);
+    }
+
+    public void set(String selector, int value) {
+        commands.add(selector);
+        commands.add(value);
+    }
+
+    public void setObject(String selector, Object value) {
+        commands.add(selector);
+        commands.add(value);
+    }
+
+    public int size() {
+        return commands.size() / 2;
+    }
+}
@@ -0,0 +1,48 @@
+package com.hypixel.hytale.server.core.universe;
+
+import com.hypixel.hytale.component.Component;
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.io.PacketHandler;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+import java.util.UUID;
+
+public class PlayerRef implements Component<EntityStore> {
+
+    private static final ComponentType<EntityStore, PlayerRef> COMPONENT_TYPE = new ComponentType<>();
+
+    private final UUID uuid;
+    private final String username;
+    private final PacketHandler packetHandler = new PacketHandler();
+
+    public PlayerRef(UUID uuid, String username) {
+        this.uuid = uuid;
+        this.username = username;
+    }
+
+    public static ComponentType<EntityStore, PlayerRef> getComponentType() {
+        return COMPONENT_TYPE;
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public PacketHandler getPacketHandler() {
+        return packetHandler;
+    }
+
+    public void sendMessage(Message message) {
+        packetHandler.recordPacket();
+    }
+
+    @Override
+    public Component<EntityStore> clone() {
+        return this;
+    }
+}
@@ -0,0 +1,34 @@
+package com.hypixel.hytale.server.core.universe.world;
+
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on the calling thread.
+ */
+public class World implements Executor {
+
+    private final String name;
+    private final List<PlayerRef> playerRefs = new ArrayList<>();
+
+    public World(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        task.run();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Collection<PlayerRef> getPlayerRefs() {
+        return playerRefs;
+    }
+}
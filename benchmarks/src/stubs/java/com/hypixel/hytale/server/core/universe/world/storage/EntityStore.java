@@ -0,0 +1,4 @@
+package com.hypixel.hytale.server.core.universe.world.storage;
+
+public class EntityStore {
+}
@@ -0,0 +1,10 @@
+package com.hypixel.hytale.server.core.util;
+
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+public class EventTitleUtil {
+    public static void showEventTitleToPlayer(PlayerRef playerRef, Message title, Message subtitle, boolean major) {
+        playerRef.getPacketHandler().recordPacket();
+    }
+}
@@ -0,0 +1,11 @@
+package com.hypixel.hytale.server.core.util;
+
+import com.hypixel.hytale.protocol.packets.interface_.NotificationStyle;
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.io.PacketHandler;
+
+public class NotificationUtil {
+    public static void sendNotification(PacketHandler handler, Message title, Message body, NotificationStyle style) {
+        handler.recordPacket();
+    }
+}
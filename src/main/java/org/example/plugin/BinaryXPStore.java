@@ -0,0 +1,288 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * The default store: a sorted binary snapshot (xp_data.bin) read on demand,
+ * plus an append-only journal of changes since it was written.
+ *
+ * Upserts are appended to the journal; once the active segment passes the
+ * compaction threshold it is sealed and the {@link XPCompactor} merges it
+ * into a new snapshot, which is when the records count as settled.
+ */
+public class BinaryXPStore implements XPStore {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final XPMetrics METRICS = XPMetrics.get();
+
+    private final Path dir;
+    private final Path dataFile;
+    private final Path legacyJsonFile;
+
+    // Whether snapshots are written as deflated blocks (smaller) or flat records (faster lookups)
+    private final boolean compressSnapshots;
+
+    // Journal segment size that triggers compaction
+    private final long compactThresholdBytes;
+
+    // Indexed on-disk snapshot; swapped by the compactor under the write lock. Empty until opened.
+    private XPSnapshotReader snapshot = XPSnapshotReader.empty();
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    // Append-only log of changes since the last snapshot
+    private final XPJournal journal;
+    private final XPCompactor compactor;
+
+    private volatile Listener listener = records -> { };
+
+    public BinaryXPStore(@Nonnull Path dir, boolean compressSnapshots, long compactThresholdBytes) {
+        this.dir = dir;
+        this.dataFile = dir.resolve("xp_data.bin");
+        this.legacyJsonFile = dir.resolve("xp_data.json");
+        this.compressSnapshots = compressSnapshots;
+        this.compactThresholdBytes = compactThresholdBytes;
+        this.journal = new XPJournal(dir);
+        this.compactor = new XPCompactor(this, journal);
+    }
+
+    @Nonnull
+    @Override
+    public String name() {
+        return "binary";
+    }
+
+    @Override
+    public long lastModified() {
+        try {
+            long snapshotTime = Files.exists(dataFile) ? Files.getLastModifiedTime(dataFile).toMillis() : 0;
+            return Math.max(snapshotTime, journal.lastModified());
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Opens the snapshot index and replays the journal into {@code unsettled}, both on
+     * {@code parallel}. Only journaled records are brought onto the heap; snapshot records
+     * are read on demand. Segments left over from the last run are queued for compaction.
+     */
+    @Override
+    public void open(@Nonnull Listener listener, @Nonnull BiConsumer<UUID, PlayerXPData> unsettled,
+                     @Nonnull Executor parallel) throws IOException {
+        this.listener = listener;
+        long start = System.nanoTime();
+        int replayed = 0;
+        snapshotLock.writeLock().lock();
+        try {
+            migrateLegacyJson();
+            snapshot.close();
+            CompletableFuture<XPSnapshotReader> opened = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return XPSnapshotReader.open(dataFile);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, parallel);
+            int[] count = {0};
+            try {
+                journal.replayAll((playerId, data) -> {
+                    unsettled.accept(playerId, data);
+                    count[0]++;
+                }, parallel);
+            } finally {
+                snapshot = opened.exceptionally(e -> {
+                    LOGGER.atWarning().log("Failed to open XP snapshot: " + e.getMessage());
+                    return XPSnapshotReader.empty();
+                }).join();
+            }
+            replayed = count[0];
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        METRICS.dataLoad.recordSince(start);
+        METRICS.loadBytes.add(sizeOnDisk());
+        LOGGER.atInfo().log("Indexed XP data for " + snapshot.size() + " players (" + replayed + " journal records).");
+
+        journal.open();
+        compactor.request();
+    }
+
+    /**
+     * One-shot conversion of the old pretty-printed xp_data.json into the binary snapshot.
+     * The JSON file is kept as xp_data.json.migrated rather than deleted.
+     */
+    private void migrateLegacyJson() throws IOException {
+        if (Files.exists(dataFile) || !Files.exists(legacyJsonFile)) {
+            return;
+        }
+
+        // Streamed record by record; only the records themselves are kept, to be sorted for the snapshot
+        Map<UUID, PlayerXPData> converted = new HashMap<>();
+        XPJsonFormat.read(legacyJsonFile, converted::put);
+
+        Files.createDirectories(dir);
+        XPBinaryFormat.write(dataFile, converted, compressSnapshots);
+        Files.move(legacyJsonFile, legacyJsonFile.resolveSibling("xp_data.json.migrated"), StandardCopyOption.REPLACE_EXISTING);
+        LOGGER.atInfo().log("Migrated " + converted.size() + " players from xp_data.json to xp_data.bin.");
+    }
+
+    @Nullable
+    @Override
+    public PlayerXPData load(@Nonnull UUID playerId) throws IOException {
+        snapshotLock.readLock().lock();
+        try {
+            return snapshot.get(playerId);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends the records to the journal, sealing it for compaction once it is large enough.
+     * Synchronized so the size check and rotation cannot interleave with {@link #settle()}.
+     */
+    @Override
+    public synchronized void upsertBatch(@Nonnull Map<UUID, PlayerXPData> records) throws IOException {
+        journal.append(records);
+        METRICS.savedBytes.add((long) records.size() * XPJournal.RECORD_SIZE);
+        if (journal.activeSize() >= compactThresholdBytes) {
+            journal.rotate();
+            compactor.request();
+        }
+    }
+
+    @Override
+    public void forEachAfter(@Nullable UUID after, int limit, @Nonnull BiConsumer<UUID, PlayerXPData> consumer) throws IOException {
+        snapshotLock.readLock().lock();
+        try {
+            snapshot.forEachAfter(after, limit, consumer);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the snapshot sequentially, one pass over the file rather than a lookup per player.
+     */
+    @Override
+    public void forEach(@Nonnull BiConsumer<UUID, PlayerXPData> consumer) throws IOException {
+        snapshotLock.readLock().lock();
+        try {
+            snapshot.forEach(consumer);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        snapshotLock.readLock().lock();
+        try {
+            return snapshot.size();
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long sizeOnDisk() {
+        try {
+            return (Files.exists(dataFile) ? Files.size(dataFile) : 0) + journal.totalSize();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Seals the journal and waits until the compactor has folded it into the snapshot.
+     */
+    @Override
+    public void settle() throws IOException, InterruptedException {
+        synchronized (this) {
+            journal.rotate();
+        }
+        compactor.compactAndWait();
+    }
+
+    /**
+     * The current snapshot. Only the compactor streams it, and only the compactor replaces it,
+     * so it stays open for the duration of a merge.
+     */
+    @Nonnull
+    XPSnapshotReader snapshotReader() {
+        return snapshot;
+    }
+
+    @Nonnull
+    Path dataFile() {
+        return dataFile;
+    }
+
+    boolean isCompressSnapshots() {
+        return compressSnapshots;
+    }
+
+    /**
+     * Commits a freshly merged snapshot over the old one and reopens the index on it.
+     */
+    void installSnapshot(@Nonnull XPBinaryFormat.Writer writer) throws IOException {
+        snapshotLock.writeLock().lock();
+        try {
+            // Close first: an open handle blocks replacing the file on Windows
+            snapshot.close();
+            try {
+                writer.commit();
+            } finally {
+                snapshot = XPSnapshotReader.open(dataFile);
+            }
+            LOGGER.atInfo().log("Saved XP snapshot for " + snapshot.size() + " players.");
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reports records the compactor has just written into the snapshot.
+     */
+    void compacted(@Nonnull Map<UUID, PlayerXPData> records) {
+        listener.settled(records);
+    }
+
+    /**
+     * Folds the whole journal into the snapshot so the next startup only has to read one file.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            journal.rotate();
+        }
+        compactor.shutdown();
+        try {
+            journal.close();
+        } finally {
+            snapshotLock.writeLock().lock();
+            try {
+                snapshot.close();
+                snapshot = XPSnapshotReader.empty();
+            } finally {
+                snapshotLock.writeLock().unlock();
+            }
+        }
+    }
+}
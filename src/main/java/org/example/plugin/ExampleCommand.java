@@ -6,7 +6,6 @@ import com.hypixel.hytale.server.core.command.system.CommandContext;
 import com.hypixel.hytale.server.core.command.system.basecommands.CommandBase;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
-import com.hypixel.hytale.server.core.util.EventTitleUtil;
 
 import javax.annotation.Nonnull;
 import java.util.UUID;
@@ -42,22 +41,19 @@ public class ExampleCommand extends CommandBase {
         ExperienceBarHud xpBar = xpManager.getXPBar(playerId);
         
         if (xpBar == null) {
-            // XP bar not initialized (shouldn't happen if player join event fired)
-            ctx.sendMessage(Message.raw("XP Bar not found. Initializing..."));
-            xpManager.initializePlayer(player, playerRef);
-            xpBar = xpManager.getXPBar(playerId);
+            // XP bar not initialized yet (the saved record may still be loading)
+            ctx.sendMessage(Message.raw("XP Bar not found. Initializing, try again in a moment..."));
+            if (!xpManager.isLoading(playerId)) {
+                xpManager.initializePlayer(player, playerRef);
+            }
+            return;
         }
         
         // Add XP
-        boolean leveledUp = xpBar.addExperience(25);
+        xpManager.addExperience(playerId, 25);
+        PlayerXPData record = xpBar.getState().snapshot();
         
-        if (leveledUp) {
-            Message levelUpTitle = Message.raw("LEVEL UP!");
-            Message levelUpSubtitle = Message.raw("You are now level " + xpBar.getLevel());
-            EventTitleUtil.showEventTitleToPlayer(playerRef, levelUpTitle, levelUpSubtitle, true);
-            ctx.sendMessage(Message.raw("Congratulations! You reached level " + xpBar.getLevel() + "!"));
-        } else {
-            ctx.sendMessage(Message.raw("+25 XP! (" + xpBar.getCurrentXP() + "/" + xpBar.getXpToNextLevel() + ")"));
-        }
+        // Level-ups are announced by the XP bar's notifier, merged with any others
+        ctx.sendMessage(Message.raw("+25 XP! (" + record.getCurrentXP() + "/" + record.getXpToNextLevel() + ")"));
     }
 }
\ No newline at end of file
@@ -15,17 +15,23 @@ import javax.annotation.Nonnull;
  * 
  * Commands:
  * - /test - Adds 25 XP
- * - /givexp [amount] - Gives specified amount of XP (default 100)
- * - /resetxp - Resets XP to level 1
+ * - /givexp [amount] [target] - Gives specified amount of XP (default 100) to you or a target
+ * - /resetxp [target] - Resets XP to level 1, yours or a target's
+ * - /givexpall <amount> - Gives XP to every player, online or offline (admin)
+ * - /xptop [count] - Lists the players with the most XP and your rank
+ * - /xpstats - Shows XP system metrics (admin)
  * 
  * Features:
- * - XP bar shown automatically on join
+ * - XP bar shown automatically on join, with a top-players panel
  * - XP data persists between sessions
+ * - Mining XP rules in mining_rules.json, reloaded live
  */
 public class ExamplePlugin extends JavaPlugin {
 
     private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
 
+    private final MiningRules miningRules = new MiningRules(ExperienceManager.DATA_DIR);
+
     public ExamplePlugin(@Nonnull JavaPluginInit init) {
         super(init);
         LOGGER.atInfo().log("Hello from " + this.getName() + " version " + this.getManifest().getVersion().toString());
@@ -39,23 +45,37 @@ public class ExamplePlugin extends JavaPlugin {
         this.getCommandRegistry().registerCommand(new ExampleCommand(this.getName(), this.getManifest().getVersion().toString()));
         this.getCommandRegistry().registerCommand(new GiveXPCommand());
         this.getCommandRegistry().registerCommand(new ResetXPCommand());
+        this.getCommandRegistry().registerCommand(new GiveXPAllCommand());
+        this.getCommandRegistry().registerCommand(new XPTopCommand());
+        this.getCommandRegistry().registerCommand(new XPStatsCommand());
         
         // Register player events
         this.getEventRegistry().register(PlayerConnectEvent.class, this::onPlayerConnect);
         this.getEventRegistry().register(PlayerDisconnectEvent.class, this::onPlayerDisconnect);
         
-        // Register mining XP system (gives 1 XP when mining rock/dirt with pickaxe)
-        this.getEntityStoreRegistry().registerSystem(new MiningXPSystem());
+        // Load stored XP data in the background; players joining and XP granted before it
+        // is ready are queued behind it. XP data and HUD updates are flushed by background tasks.
+        XPConfig config = XPConfig.load(ExperienceManager.DATA_DIR);
+        ExperienceManager.getInstance().start(config);
+        
+        // Register mining XP system (rules from mining_rules.json, reloaded when the file changes)
+        miningRules.load();
+        miningRules.startWatching(config.getRulesReloadCheckMs());
+        PendingXP.setComponentType(this.getEntityStoreRegistry().registerComponent(PendingXP.class, PendingXP::new));
+        this.getEntityStoreRegistry().registerSystem(new PendingXPAttachSystem());
+        this.getEntityStoreRegistry().registerSystem(new MiningXPSystem(miningRules));
+        this.getEntityStoreRegistry().registerSystem(new PendingXPSystem());
         
-        LOGGER.atInfo().log("Registered commands: /test, /givexp, /resetxp");
-        LOGGER.atInfo().log("Registered MiningXPSystem - mine rock/dirt with pickaxe to earn XP!");
-        LOGGER.atInfo().log("XP data will be saved to plugins/ExamplePlugin/xp_data.json");
+        LOGGER.atInfo().log("Registered commands: /test, /givexp, /resetxp, /givexpall, /xptop, /xpstats");
+        LOGGER.atInfo().log("Registered MiningXPSystem - mining XP rules are in plugins/ExamplePlugin/mining_rules.json");
+        LOGGER.atInfo().log("XP data will be saved to plugins/ExamplePlugin (" + config.getStorage() + " storage)");
     }
 
     @Override
     protected void shutdown() {
         LOGGER.atInfo().log("Shutting down plugin - saving XP data...");
-        ExperienceManager.getInstance().saveData();
+        miningRules.shutdown();
+        ExperienceManager.getInstance().shutdown();
         LOGGER.atInfo().log("XP data saved successfully!");
     }
 
@@ -75,16 +95,15 @@ public class ExamplePlugin extends JavaPlugin {
 
     /**
      * Called when a player disconnects from the server.
-     * Saves their XP data and removes the HUD reference.
+     * Hands their XP data to the background writer and removes the HUD reference.
      */
     private void onPlayerDisconnect(PlayerDisconnectEvent event) {
         PlayerRef playerRef = event.getPlayerRef();
         
         if (playerRef != null) {
             LOGGER.atInfo().log("Player disconnected: " + playerRef.getUsername() + " - Saving XP data");
+            // Marks the player dirty; the write-behind thread persists it on its next flush
             ExperienceManager.getInstance().removePlayer(playerRef.getUuid());
-            // Save after each disconnect to be safe
-            ExperienceManager.getInstance().saveData();
         }
     }
 }
\ No newline at end of file
@@ -1,6 +1,5 @@
 package org.example.plugin;
 
-import com.hypixel.hytale.server.core.HytaleServer;
 import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.entity.entities.player.hud.CustomUIHud;
 import com.hypixel.hytale.server.core.ui.Anchor;
@@ -11,189 +10,262 @@ import com.hypixel.hytale.server.core.util.NotificationUtil;
 import com.hypixel.hytale.protocol.packets.interface_.NotificationStyle;
 
 import javax.annotation.Nonnull;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A custom HUD element that displays an experience bar on the player's screen.
  * The bar shows the current level and XP progress to the next level.
- * Features animated floating popup text when XP is gained!
+ * Features floating popup text when XP is gained, drawn from a fixed pool of
+ * popup slots in the UI file (see {@link XPPopupSlots}).
+ * The XP itself lives in a {@link PlayerXPState}; this class only renders it.
+ * A small panel lists the top players from the shared {@link XPLeaderboard}.
+ * State changes are batched: the HUD marks itself dirty and the
+ * {@link XPHudFlusher} sends the latest state at most once per interval.
  */
 public class ExperienceBarHud extends CustomUIHud {
 
     private static final int BAR_WIDTH = 636; // Total fill width (640 - 4 for padding)
-    private static final int POPUP_DISPLAY_MS = 1200; // How long popup stays visible
-    
-    private int level = 1;
-    private int currentXP = 0;
-    private int xpToNextLevel = 100;
-    
-    // Counter for unique popup IDs
-    private final AtomicInteger popupCounter = new AtomicInteger(0);
+    private static final Value<Integer> FILL_INSET = Value.of(2);
+    private static final XPMetrics METRICS = XPMetrics.get();
+    private static final Message EMPTY_ROW = Message.raw("");
+    private static final String[] TOP_SELECTORS = new String[XPLeaderboard.PANEL_SIZE];
+
+    static {
+        for (int i = 0; i < TOP_SELECTORS.length; i++) {
+            TOP_SELECTORS[i] = "#Top" + (i + 1) + ".TextSpans";
+        }
+    }
+
+    private final XPHudFlusher flusher;
+    private final PlayerXPState state;
+    private final XPLeaderboard leaderboard;
+
+    // True while this HUD is queued in the flusher
+    private final AtomicBoolean updatePending = new AtomicBoolean(false);
+
+    // UI update packets sent to this player, for /xpstats
+    private final AtomicLong updatesSent = new AtomicLong();
 
-    public ExperienceBarHud(@Nonnull PlayerRef playerRef) {
+    // XP gained since the last flush, shown as one popup; added to from any thread
+    private final AtomicLong popupGain = new AtomicLong();
+
+    // Latest custom popup text waiting for the next flush
+    private final AtomicReference<String> popupText = new AtomicReference<>();
+
+    // Guarded by this HUD's monitor, like the sent state below
+    private final XPPopupSlots popups = new XPPopupSlots();
+
+    // Level-ups waiting to be announced, merged and rate-limited
+    private final LevelUpNotifier levelUps;
+
+    // What the client currently shows; -1 forces the property to be sent.
+    // Guarded by this HUD's monitor (build and flush can run on different threads).
+    private int sentFillWidth = -1;
+    private int sentLevel = -1;
+    private long sentCurrentXP = -1;
+    private long sentXpToNextLevel = -1;
+    private int sentPanelVersion = -1;
+
+    // The XP text last built and the numbers it shows, so a resend of the same numbers
+    // (after build() resets the sent state) reuses it instead of formatting it again
+    private Message xpText;
+    private long xpTextCurrentXP = -1;
+    private long xpTextXpToNextLevel = -1;
+
+    public ExperienceBarHud(@Nonnull PlayerRef playerRef, @Nonnull XPHudFlusher flusher, @Nonnull PlayerXPState state,
+                            @Nonnull XPLeaderboard leaderboard, @Nonnull LevelUpNotifier levelUps) {
         super(playerRef);
+        this.flusher = flusher;
+        this.state = state;
+        this.leaderboard = leaderboard;
+        this.levelUps = levelUps;
     }
 
     @Override
-    protected void build(@Nonnull UICommandBuilder commandBuilder) {
+    protected synchronized void build(@Nonnull UICommandBuilder commandBuilder) {
         // Load the UI template - try without prefix since it's in Common/UI/Custom/
         commandBuilder.append("ExperienceBar.ui");
         
-        // Set initial values
-        updateDisplay(commandBuilder);
+        // Fresh document: everything has to be sent
+        sentFillWidth = -1;
+        sentLevel = -1;
+        sentCurrentXP = -1;
+        sentXpToNextLevel = -1;
+        sentPanelVersion = -1;
+        popups.reset();
+        updateDisplay(commandBuilder, state.snapshot(), leaderboard.panel());
     }
 
     /**
-     * Updates the visual display of the XP bar.
+     * Width of the fill bar in pixels for the given progress.
      */
-    private void updateDisplay(@Nonnull UICommandBuilder commandBuilder) {
-        // Calculate fill width based on XP percentage
-        float percent = (float) currentXP / (float) xpToNextLevel;
-        int fillWidth = (int) (percent * BAR_WIDTH);
-        
-        // Update the fill bar by setting the entire Anchor object
-        Anchor fillAnchor = new Anchor();
-        fillAnchor.setLeft(Value.of(2));
-        fillAnchor.setTop(Value.of(2));
-        fillAnchor.setBottom(Value.of(2));
-        fillAnchor.setWidth(Value.of(fillWidth));
-        commandBuilder.setObject("#Fill.Anchor", fillAnchor);
-        
-        // Update the level text (use TextSpans for dynamic updates)
-        commandBuilder.set("#LevelText.TextSpans", Message.raw("Level " + level));
-        
-        // Update the XP text
-        commandBuilder.set("#XPText.TextSpans", Message.raw(currentXP + "/" + xpToNextLevel + " XP"));
+    private static int fillWidth(long currentXP, long xpToNextLevel) {
+        double percent = (double) currentXP / (double) xpToNextLevel;
+        return (int) (percent * BAR_WIDTH);
     }
 
     /**
-     * Sets the experience values and updates the HUD.
-     * Use setInitialExperience() if called before the HUD is shown.
-     *
-     * @param level The current level
-     * @param currentXP The current XP amount
-     * @param xpToNextLevel The XP required to reach the next level
+     * Whether any visible property differs from what the client last received.
      */
-    public void setExperience(int level, int currentXP, int xpToNextLevel) {
-        this.level = level;
-        this.currentXP = currentXP;
-        this.xpToNextLevel = xpToNextLevel;
-
-        // Push the update to the client
-        UICommandBuilder commandBuilder = new UICommandBuilder();
-        updateDisplay(commandBuilder);
-        this.update(false, commandBuilder);
-    }
-    
-    /**
-     * Sets initial experience values WITHOUT sending an update.
-     * Use this when restoring data BEFORE showing the HUD.
-     * The values will be applied when build() is called.
-     */
-    public void setInitialExperience(int level, int currentXP, int xpToNextLevel) {
-        this.level = level;
-        this.currentXP = currentXP;
-        this.xpToNextLevel = xpToNextLevel;
-        // Don't call update() - build() will use these values
+    private boolean hasVisibleChanges(@Nonnull PlayerXPData data, @Nonnull XPLeaderboard.Panel panel) {
+        return fillWidth(data.getCurrentXP(), data.getXpToNextLevel()) != sentFillWidth || data.getLevel() != sentLevel
+                || data.getCurrentXP() != sentCurrentXP || data.getXpToNextLevel() != sentXpToNextLevel
+                || panel.version != sentPanelVersion;
     }
 
     /**
-     * Adds XP and handles level ups.
-     * Shows an animated floating popup for XP gain!
-     * Uses the notification system for level ups!
-     *
-     * @param amount The amount of XP to add
-     * @return true if the player leveled up
+     * Writes only the properties that differ from what the client last received.
      */
-    public boolean addExperience(int amount) {
-        this.currentXP += amount;
-        boolean leveledUp = false;
-
-        // Handle level up(s)
-        while (this.currentXP >= this.xpToNextLevel) {
-            this.currentXP -= this.xpToNextLevel;
-            this.level++;
-            this.xpToNextLevel = calculateXPForLevel(this.level);
-            leveledUp = true;
-        }
+    private void updateDisplay(@Nonnull UICommandBuilder commandBuilder, @Nonnull PlayerXPData data,
+                               @Nonnull XPLeaderboard.Panel panel) {
+        int level = data.getLevel();
+        long currentXP = data.getCurrentXP();
+        long xpToNextLevel = data.getXpToNextLevel();
 
-        // Update the display
-        UICommandBuilder commandBuilder = new UICommandBuilder();
-        updateDisplay(commandBuilder);
-        this.update(false, commandBuilder);
+        // A fill change smaller than one pixel is invisible, so compare widths, not XP
+        int fillWidth = fillWidth(currentXP, xpToNextLevel);
+        if (fillWidth != sentFillWidth) {
+            // Update the fill bar by setting the entire Anchor object
+            Anchor fillAnchor = new Anchor();
+            fillAnchor.setLeft(FILL_INSET);
+            fillAnchor.setTop(FILL_INSET);
+            fillAnchor.setBottom(FILL_INSET);
+            fillAnchor.setWidth(Value.of(fillWidth));
+            commandBuilder.setObject("#Fill.Anchor", fillAnchor);
+            sentFillWidth = fillWidth;
+        }
         
-        // TODO: Re-enable popup once base UI is confirmed working
-        // showAnimatedPopup("+" + amount + " XP", "#4ade80");
+        // Update the level text (use TextSpans for dynamic updates)
+        if (level != sentLevel) {
+            commandBuilder.set("#LevelText.TextSpans", XPLabels.levelLabel(level));
+            sentLevel = level;
+        }
         
-        // Use notification system for level ups
-        if (leveledUp) {
-            NotificationUtil.sendNotification(
-                getPlayerRef().getPacketHandler(),
-                Message.raw("Level Up!"),
-                Message.raw("You reached level " + level + "!"),
-                NotificationStyle.Success
-            );
+        // Update the XP text
+        if (currentXP != sentCurrentXP || xpToNextLevel != sentXpToNextLevel) {
+            if (currentXP != xpTextCurrentXP || xpToNextLevel != xpTextXpToNextLevel) {
+                xpText = XPLabels.xpLabel(currentXP, xpToNextLevel, level);
+                xpTextCurrentXP = currentXP;
+                xpTextXpToNextLevel = xpToNextLevel;
+            }
+            commandBuilder.set("#XPText.TextSpans", xpText);
+            sentCurrentXP = currentXP;
+            sentXpToNextLevel = xpToNextLevel;
         }
 
-        return leveledUp;
+        // Update the leaderboard rows; empty rows are cleared
+        if (panel.version != sentPanelVersion) {
+            for (int i = 0; i < TOP_SELECTORS.length; i++) {
+                commandBuilder.set(TOP_SELECTORS[i], i < panel.lines.length ? panel.lines[i] : EMPTY_ROW);
+            }
+            sentPanelVersion = panel.version;
+        }
     }
-    
+
     /**
-     * Shows a floating popup above the XP bar that disappears after a delay.
-     * Positioned using HorizontalCenter in the UI markup for proper centering.
+     * Queues this HUD for the next flush, unless it is already queued.
+     * Called after the player's XP state changes.
      */
-    private void showAnimatedPopup(String text, String color) {
-        int popupId = popupCounter.incrementAndGet();
-        String popupSelector = "#Popup" + popupId;
-        
-        // Create popup with absolute positioning (centered above XP bar)
-        // Using HorizontalCenter: 0 to center it on screen
-        UICommandBuilder createBuilder = new UICommandBuilder();
-        String popupUI = "Label " + popupSelector + " { " +
-                "Anchor: (Bottom: 185, Height: 32, Width: 200, HorizontalCenter: 0); " +
-                "Style: (FontSize: 20, HorizontalAlignment: Center, VerticalAlignment: Center, " +
-                "TextColor: " + color + ", RenderBold: true); " +
-                "Text: \"" + text + "\"; " +
-                "}";
-        
-        // Append directly to root (selector works after document is loaded)
-        createBuilder.appendInline("#Root", popupUI);
-        this.update(false, createBuilder);
-        
-        // Schedule removal after delay
-        HytaleServer.SCHEDULED_EXECUTOR.schedule(() -> {
-            UICommandBuilder removeBuilder = new UICommandBuilder();
-            removeBuilder.remove(popupSelector);
-            this.update(false, removeBuilder);
-        }, POPUP_DISPLAY_MS, TimeUnit.MILLISECONDS);
+    void markDirty() {
+        if (updatePending.compareAndSet(false, true)) {
+            flusher.enqueue(this);
+        }
     }
-    
+
     /**
-     * Shows a custom animated popup with any message and color.
+     * Sends the current state to the client. Called by the flusher.
      */
-    public void showCustomPopup(String text, String hexColor) {
-        showAnimatedPopup(text, hexColor);
+    synchronized void flushPendingUpdate() {
+        // Clear first so a change made while building the update queues another flush
+        updatePending.set(false);
+        // One read of the state, so the whole update describes a single moment
+        PlayerXPData data = state.snapshot();
+        XPLeaderboard.Panel panel = leaderboard.panel();
+        long gained = popupGain.getAndSet(0);
+        String text = popupText.getAndSet(null);
+        long start = System.nanoTime();
+        boolean popupChanges = popups.hasChanges(gained, text, start);
+        if (popupChanges || hasVisibleChanges(data, panel)) {
+            UICommandBuilder commandBuilder = new UICommandBuilder();
+            updateDisplay(commandBuilder, data, panel);
+            if (popupChanges) {
+                popups.update(commandBuilder, gained, text, start);
+            }
+            send(commandBuilder);
+            METRICS.hudFlush.recordSince(start);
+        } else if (!popups.anyVisible() && !levelUps.isPending()) {
+            METRICS.hudSkipped.increment(); // Nothing the player could see changed, so send nothing
+        }
+
+        Message levelUp = levelUps.poll(data.getLevel(), start);
+        if (levelUp != null) {
+            METRICS.notifications.increment();
+            NotificationUtil.sendNotification(getPlayerRef().getPacketHandler(), Message.raw("Level Up!"), levelUp,
+                    NotificationStyle.Success);
+        }
+        if (popups.anyVisible() || levelUps.isPending()) {
+            markDirty(); // Come back on a later flush to hide popups or announce level-ups
+        }
     }
 
     /**
-     * Calculates the XP required for a given level.
-     * Uses a simple scaling formula: 100 * level
+     * Sends a UI update and counts it.
      */
-    private int calculateXPForLevel(int level) {
-        return 100 * level;
+    private void send(@Nonnull UICommandBuilder commandBuilder) {
+        this.update(false, commandBuilder);
+        updatesSent.incrementAndGet();
+        METRICS.hudUpdates.increment();
     }
 
-    public int getLevel() {
-        return level;
+    /**
+     * UI update packets sent to this player since the HUD was created.
+     */
+    public long getUpdatesSent() {
+        return updatesSent.get();
     }
 
-    public int getCurrentXP() {
-        return currentXP;
+    /**
+     * Called after XP was added to this HUD's state.
+     * Shows a floating popup for the XP gain and queues a level-up
+     * notification, both sent by a later flush.
+     *
+     * @param change What the grant did, as returned by {@link PlayerXPState#add}
+     */
+    void onExperienceGained(@Nonnull PlayerXPState.Change change) {
+        // Shown by the next flush, together with the bar; gains in between add up to one popup
+        if (change.getAmount() > 0) {
+            popupGain.addAndGet(change.getAmount());
+        }
+        // Announced once the notifier's window has passed, together with any further level-ups.
+        // The levels come from the grant itself: the state may already include other grants.
+        if (change.getLevelsGained() > 0) {
+            METRICS.levelUps.increment();
+            levelUps.levelUp(change.getFromLevel(), change.getToLevel(), System.nanoTime());
+        }
+        // Update the display on the next flush; later gains in the same interval merge into it
+        markDirty();
+    }
+    
+    /**
+     * Shows a floating popup above the XP bar with any message, on the next flush.
+     * If several arrive within one flush interval, only the latest is shown.
+     */
+    public void showCustomPopup(@Nullable String text) {
+        if (text != null) {
+            popupText.set(text);
+            markDirty();
+        }
     }
 
-    public int getXpToNextLevel() {
-        return xpToNextLevel;
+    /**
+     * The XP state this HUD displays.
+     */
+    @Nonnull
+    public PlayerXPState getState() {
+        return state;
     }
 }
 
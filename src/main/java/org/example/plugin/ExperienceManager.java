@@ -1,22 +1,39 @@
 package org.example.plugin;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.HytaleServer;
+import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.entity.entities.player.hud.HudManager;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.IOException;
-import java.lang.reflect.Type;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Manages experience bars for all players on the server.
@@ -25,96 +42,620 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ExperienceManager {
 
     private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
-    private static final Path DATA_DIR = Path.of("plugins/ExamplePlugin");
-    private static final Path DATA_FILE = DATA_DIR.resolve("xp_data.json");
+    static final Path DATA_DIR = Path.of("plugins/ExamplePlugin");
 
-    private static ExperienceManager instance;
+    // Storage types accepted in config; the first is the default
+    private static final List<String> STORE_TYPES = List.of("binary", "json", "sqlite");
 
-    // Active HUD references (only for online players)
+    // Pending records allowed to pile up during a bulk update or import before the store is made to settle them
+    private static final int BULK_PENDING_LIMIT = 256 * XPBulkUpdate.BATCH_SIZE;
+
+    // Records per write when importing another store; large, since the JSON store rewrites its file per write
+    private static final int IMPORT_BATCH_SIZE = 64 * XPBulkUpdate.BATCH_SIZE;
+
+    private static final XPMetrics METRICS = XPMetrics.get();
+    private static final XPEvents EVENTS = XPEvents.get();
+
+    // Threads parsing stored data in parallel during warm-up
+    private static final int WARMUP_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    // How long shutdown waits for a warm-up still in progress before closing the store under it
+    private static final long WARMUP_SHUTDOWN_WAIT_SECONDS = 30;
+
+    // How long shutdown waits for queued grants, loads and bulk updates before dropping them
+    private static final long QUEUED_SHUTDOWN_WAIT_SECONDS = 10;
+
+    // Created with the class; the constructor only sets up empty structures, so this is cheap
+    private static final ExperienceManager INSTANCE = new ExperienceManager();
+
+    // Live XP state of online players; updated lock-free from any thread
+    private final Map<UUID, PlayerXPState> playerStates = new ConcurrentHashMap<>();
+
+    // Active HUD references (only for online players); each renders the matching state
     private final Map<UUID, ExperienceBarHud> playerXPBars = new ConcurrentHashMap<>();
+
+    // Players between connect and disconnect, including those whose record is still loading
+    private final Set<UUID> connectedPlayers = ConcurrentHashMap.newKeySet();
+
+    // The same players' entities, for commands that target several players by world
+    private final Map<UUID, Player> onlinePlayers = new ConcurrentHashMap<>();
     
-    // Persistent XP data (for all players, saved to disk)
-    private Map<String, PlayerXPData> xpData = new ConcurrentHashMap<>();
+    // Offline players' records in front of the store. Dirty entries (players who left or changed
+    // since they were last written) stay until the store settles them; clean ones are recent
+    // reads and settled writes, evicted in CLOCK order beyond cacheCapacity entries.
+    // Keyed by the UUID's two longs; reads return copies, so callers always see a whole record.
+    private final UUIDXPTable xpData = new UUIDXPTable();
+
+    // Entries xpData may hold before clean ones are evicted and dirty ones written back
+    private volatile int cacheCapacity = 50_000;
+
+    // Where records are persisted; picked from config and opened by warm-up, null until then
+    private volatile XPStore store;
+
+    // Bumped whenever the store settles records, so records read from it earlier can be detected
+    private final AtomicLong settledGeneration = new AtomicLong();
+
+    // Serializes a player's online/offline transitions with updates to their stored record
+    private final Object[] playerLocks = new Object[64];
+
+    // Fetches player records off the event and world threads
+    private final ExecutorService loader = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "ExamplePlugin-XPLoader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Runs bulk updates one at a time, apart from per-player loads
+    private final ExecutorService bulkExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ExamplePlugin-XPBulk");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Futures handed out for work on the loader and bulk pools, until they complete;
+    // whatever shutdown cannot finish is cancelled, so no caller waits forever
+    private final Set<CompletableFuture<?>> queued = ConcurrentHashMap.newKeySet();
+
+    // Tracks dirty players and writes them to the store off-thread
+    private final XPWriteBehind writeBehind = new XPWriteBehind(this);
+
+    // Batches XP bar updates into one packet per player per interval
+    private final XPHudFlusher hudFlusher = new XPHudFlusher();
+
+    // XP needed per level; set from config before any player joins
+    private volatile LevelCurve curve = LevelCurve.DEFAULT;
+
+    // Level-up notification merging window and per-player budget, handed to each new HUD
+    private volatile long levelUpNotifyWindowMs = 500;
+    private volatile int maxNotificationsPerMinute = 10;
+
+    // Everyone with a record, ranked by lifetime XP; fed a new total whenever XP changes
+    private final XPLeaderboard leaderboard = new XPLeaderboard();
+
+    // Usernames seen this session, for leaderboard rows; names are not persisted
+    private final Map<UUID, String> knownNames = new ConcurrentHashMap<>();
+
+    private ScheduledFuture<?> leaderboardTask;
+
+    // Completes once the store is open and its unsettled records replayed. Anything that reads or
+    // writes stored records before then is chained onto it instead of blocking its thread.
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    // The warm-up task started by start(), if any
+    private CompletableFuture<Void> warmUp;
 
     private ExperienceManager() {
-        loadData();
+        for (int i = 0; i < playerLocks.length; i++) {
+            playerLocks[i] = new Object();
+        }
+        registerGauges();
+    }
+
+    private void registerGauges() {
+        METRICS.gauge("players.online", playerStates::size);
+        METRICS.gauge("players.stored", () -> {
+            try {
+                return storedSize();
+            } catch (IOException e) {
+                return -1;
+            }
+        });
+        METRICS.gauge("players.pending", xpData::dirtySize);
+        METRICS.gauge("players.cached", xpData::size);
+        METRICS.gauge("players.dirty", writeBehind::dirtyCount);
+        METRICS.gauge("players.ranked", leaderboard::size);
+        METRICS.gauge("store.bytes", () -> {
+            XPStore current = store;
+            return current != null ? current.sizeOnDisk() : 0;
+        });
     }
 
     public static ExperienceManager getInstance() {
-        if (instance == null) {
-            instance = new ExperienceManager();
+        return INSTANCE;
+    }
+
+    @Nonnull
+    private static XPStore createStore(@Nonnull String type, @Nonnull XPConfig config) {
+        return switch (type) {
+            case "json" -> new JsonXPStore(DATA_DIR);
+            case "sqlite" -> new SqliteXPStore(DATA_DIR, config.getSqliteConnections());
+            default -> new BinaryXPStore(DATA_DIR, config.isCompressSnapshots(), config.getJournalCompactBytes());
+        };
+    }
+
+    /**
+     * Opens the configured store, replaying records it has not settled into the cache as dirty entries.
+     * If another store type fails to open (e.g. the SQLite driver is missing), the binary
+     * store is used instead so changes are still saved somewhere.
+     */
+    private void openStore(@Nonnull XPConfig config, @Nonnull Executor parallel) {
+        String type = config.getStorage();
+        if (!STORE_TYPES.contains(type)) {
+            LOGGER.atWarning().log("Unknown XP storage '" + type + "', using " + STORE_TYPES.get(0) + ".");
+            type = STORE_TYPES.get(0);
+        }
+        XPStore opened = createStore(type, config);
+        try {
+            opened.open(this::settled, xpData::put, parallel);
+        } catch (IOException | RuntimeException e) {
+            if (opened instanceof BinaryXPStore) {
+                LOGGER.atWarning().log("Failed to load XP data: " + e.getMessage());
+            } else {
+                LOGGER.atWarning().log("Failed to open the " + opened.name() + " XP store, using binary instead: " + e.getMessage());
+                closeQuietly(opened);
+                opened = createStore(STORE_TYPES.get(0), config);
+                xpData.clear();
+                try {
+                    opened.open(this::settled, xpData::put, parallel);
+                } catch (IOException | RuntimeException fallback) {
+                    LOGGER.atWarning().log("Failed to load XP data: " + fallback.getMessage());
+                }
+            }
+        }
+        store = opened;
+
+        try {
+            importPreviousStore(config, parallel);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.atWarning().log("Failed to import XP data into the " + opened.name() + " store: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        return instance;
     }
 
     /**
-     * Loads XP data from disk.
+     * After the storage type is switched, copies every record from the store used before
+     * (the other store written most recently) into the new, still empty one. The old
+     * store's files are left where they are.
      */
-    public void loadData() {
-        if (!Files.exists(DATA_FILE)) {
-            LOGGER.atInfo().log("No XP data file found, starting fresh.");
-            xpData = new ConcurrentHashMap<>();
+    private void importPreviousStore(@Nonnull XPConfig config, @Nonnull Executor parallel) throws IOException, InterruptedException {
+        XPStore target = store;
+        if (target.size() > 0 || xpData.size() > 0) {
+            return;
+        }
+        XPStore previous = null;
+        for (String type : STORE_TYPES) {
+            if (type.equals(target.name())) {
+                continue;
+            }
+            XPStore candidate = createStore(type, config);
+            long modified = candidate.lastModified();
+            if (modified > 0 && (previous == null || modified > previous.lastModified())) {
+                previous = candidate;
+            }
+        }
+        if (previous == null) {
             return;
         }
+        long start = System.nanoTime();
+        // Records the old store had not settled are newer than what it iterates, so they go in last
+        Map<UUID, PlayerXPData> unsettled = new HashMap<>();
+        int[] imported = {0};
+        try {
+            previous.open(records -> { }, unsettled::put, parallel);
+            Map<UUID, PlayerXPData> batch = new HashMap<>();
+            previous.forEach((playerId, data) -> {
+                if (unsettled.containsKey(playerId)) {
+                    return;
+                }
+                batch.put(playerId, data);
+                if (batch.size() >= IMPORT_BATCH_SIZE) {
+                    imported[0] += importBatch(target, batch);
+                }
+            });
+            imported[0] += importBatch(target, batch);
+            imported[0] += importBatch(target, unsettled);
+            target.settle();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            closeQuietly(previous);
+        }
+        LOGGER.atInfo().log("Imported " + imported[0] + " players from the " + previous.name() + " XP store into "
+                + target.name() + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms.");
+    }
 
+    /**
+     * Writes one batch of imported records and clears it. They are pending until the target
+     * settles them, like any other write, so the target is made to settle them once too
+     * many are waiting.
+     */
+    private int importBatch(@Nonnull XPStore target, @Nonnull Map<UUID, PlayerXPData> batch) {
+        int count = batch.size();
         try {
-            String json = Files.readString(DATA_FILE);
-            Type type = new TypeToken<Map<String, PlayerXPData>>(){}.getType();
-            Map<String, PlayerXPData> loaded = GSON.fromJson(json, type);
-            if (loaded != null) {
-                xpData = new ConcurrentHashMap<>(loaded);
-                LOGGER.atInfo().log("Loaded XP data for " + xpData.size() + " players.");
+            batch.forEach(xpData::put);
+            target.upsertBatch(batch);
+            if (xpData.dirtySize() >= BULK_PENDING_LIMIT) {
+                target.settle();
             }
         } catch (IOException e) {
-            LOGGER.atWarning().log("Failed to load XP data: " + e.getMessage());
-            xpData = new ConcurrentHashMap<>();
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new IOException("Interrupted during XP import", e));
+        }
+        batch.clear();
+        return count;
+    }
+
+    private static void closeQuietly(@Nonnull XPStore store) {
+        try {
+            store.close();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.atWarning().log("Failed to close the " + store.name() + " XP store: " + e.getMessage());
         }
     }
 
     /**
-     * Saves all XP data to disk.
+     * Starts the background tasks and returns right away: stored data is loaded by a
+     * warm-up task on the loader pool (see {@link #whenReady()}), after which write-behind
+     * persistence starts writing changes to the store every flushIntervalMs.
      */
-    public void saveData() {
+    public synchronized void start(@Nonnull XPConfig config) {
+        if (warmUp != null) {
+            return;
+        }
+        curve = config.getLevelCurve();
+        levelUpNotifyWindowMs = config.getLevelUpNotifyWindowMs();
+        maxNotificationsPerMinute = config.getMaxNotificationsPerMinute();
+        cacheCapacity = config.getOfflineCacheEntries();
+        LOGGER.atInfo().log("Level curve: " + curve);
+        hudFlusher.start(config.getHudUpdateIntervalMs());
+        EVENTS.start();
+
+        warmUp = CompletableFuture.runAsync(() -> warmUp(config), loader);
+        long refreshMs = config.getLeaderboardRefreshMs();
+        leaderboardTask = HytaleServer.SCHEDULED_EXECUTOR.scheduleWithFixedDelay(this::refreshLeaderboard, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+        METRICS.start(config.getMetricsLogIntervalMs());
+    }
+
+    /**
+     * Opens the store and prepares the shared UI strings, then opens
+     * the gate for everything queued on {@link #ready}. The leaderboard is filled afterwards;
+     * nothing waits for it.
+     */
+    private void warmUp(@Nonnull XPConfig config) {
+        long start = System.nanoTime();
+        ExecutorService parallel = Executors.newFixedThreadPool(WARMUP_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "ExamplePlugin-XPWarmup");
+            thread.setDaemon(true);
+            return thread;
+        });
         try {
-            // Create directory if it doesn't exist
-            if (!Files.exists(DATA_DIR)) {
-                Files.createDirectories(DATA_DIR);
+            CompletableFuture<Void> labels = CompletableFuture.runAsync(() -> XPLabels.prewarm(curve), parallel);
+            openStore(config, parallel);
+            writeBehind.start(store, config.getFlushIntervalMs());
+            LOGGER.atInfo().log("XP write-behind enabled, flushing to the " + store.name() + " store every "
+                    + config.getFlushIntervalMs() + "ms.");
+            labels.join();
+        } catch (RuntimeException e) {
+            LOGGER.atWarning().log("XP warm-up failed: " + e.getMessage());
+        } finally {
+            parallel.shutdown();
+            // Opened even after a failure, as the blocking load used to carry on with what it had
+            ready.complete(null);
+        }
+        LOGGER.atInfo().log("XP system ready in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms.");
+        rebuildLeaderboard();
+    }
+
+    /**
+     * Completes once stored XP data is loaded. Grants, lookups and joins that arrive earlier
+     * are queued behind it rather than refused, so callers only need this to show a
+     * "still loading" state.
+     */
+    @Nonnull
+    public CompletableFuture<Void> whenReady() {
+        return ready.copy();
+    }
+
+    public boolean isReady() {
+        return ready.isDone();
+    }
+
+    /**
+     * Lets queued grants, loads and bulk updates finish (for a bounded time; the rest are
+     * cancelled), stops the background writer, flushing pending changes, then closes the store.
+     */
+    public void shutdown() {
+        awaitWarmUp();
+        if (leaderboardTask != null) {
+            leaderboardTask.cancel(false);
+            leaderboardTask = null;
+        }
+        METRICS.shutdown();
+        // Let queued grants and updates land in the pending table before the final flush
+        bulkExecutor.shutdown();
+        loader.shutdown();
+        awaitQueued(bulkExecutor, "bulk XP update");
+        awaitQueued(loader, "XP load or update");
+        int cancelled = 0;
+        for (CompletableFuture<?> future : queued) {
+            if (future.cancel(false)) {
+                cancelled++;
+            }
+        }
+        if (cancelled > 0) {
+            LOGGER.atWarning().log("Cancelled " + cancelled + " XP operations that did not finish before shutdown.");
+        }
+        hudFlusher.shutdown();
+        EVENTS.shutdown();
+        writeBehind.shutdown();
+        XPStore current = store;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                LOGGER.atWarning().log("Failed to close XP storage: " + e.getMessage());
             }
+        }
+    }
 
-            // Update xpData from active HUDs before saving
-            for (Map.Entry<UUID, ExperienceBarHud> entry : playerXPBars.entrySet()) {
-                ExperienceBarHud hud = entry.getValue();
-                PlayerXPData data = new PlayerXPData(hud.getLevel(), hud.getCurrentXP(), hud.getXpToNextLevel());
-                xpData.put(entry.getKey().toString(), data);
+    /**
+     * Waits for the tasks already queued on {@code executor}, then interrupts whatever is left.
+     */
+    private void awaitQueued(@Nonnull ExecutorService executor, @Nonnull String what) {
+        try {
+            if (executor.awaitTermination(QUEUED_SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                return;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int dropped = executor.shutdownNow().size();
+        LOGGER.atWarning().log("Gave up waiting for " + what + " tasks after " + QUEUED_SHUTDOWN_WAIT_SECONDS
+                + "s; interrupted the running ones and dropped " + dropped + " queued.");
+    }
+
+    /**
+     * Registers a future for work on the loader or bulk pool, so shutdown can cancel it if the work is dropped.
+     */
+    @Nonnull
+    private <T> CompletableFuture<T> track(@Nonnull CompletableFuture<T> future) {
+        queued.add(future);
+        future.whenComplete((result, e) -> queued.remove(future));
+        return future;
+    }
 
-            String json = GSON.toJson(xpData);
-            Files.writeString(DATA_FILE, json);
-            LOGGER.atInfo().log("Saved XP data for " + xpData.size() + " players.");
+    /**
+     * Waits for a warm-up still in progress, so the store isn't closed while it is being opened.
+     */
+    private void awaitWarmUp() {
+        CompletableFuture<Void> task;
+        synchronized (this) {
+            task = warmUp;
+        }
+        if (task == null) {
+            return;
+        }
+        try {
+            task.get(WARMUP_SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            LOGGER.atWarning().log("XP warm-up still running after " + WARMUP_SHUTDOWN_WAIT_SECONDS + "s; shutting down anyway.");
+        } catch (ExecutionException e) {
+            // Already logged by the warm-up
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes every pending change to the store on the calling thread.
+     */
+    public void saveData() {
+        try {
+            writeBehind.flush();
         } catch (IOException e) {
             LOGGER.atWarning().log("Failed to save XP data: " + e.getMessage());
         }
     }
 
+    /**
+     * The record that should be persisted for a player right now: live state
+     * if they are online, otherwise their pending record.
+     */
+    @Nullable
+    PlayerXPData currentRecord(@Nonnull UUID playerId) {
+        PlayerXPState state = playerStates.get(playerId);
+        if (state != null) {
+            return state.snapshot();
+        }
+        return xpData.get(playerId);
+    }
+
+    /**
+     * Fetches a player's stored record on the loader pool. Completes with null for new players.
+     */
+    @Nonnull
+    public CompletableFuture<PlayerXPData> loadPlayerAsync(@Nonnull UUID playerId) {
+        return track(ready.thenApplyAsync(ignored -> {
+            try {
+                return lookupStored(playerId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, loader));
+    }
+
+    /**
+     * Looks up a stored record: the cache first, then the store, caching what it finds.
+     */
+    @Nullable
+    PlayerXPData lookupStored(@Nonnull UUID playerId) throws IOException {
+        PlayerXPData cached = xpData.get(playerId);
+        if (cached != null) {
+            METRICS.cacheHits.increment();
+            return cached;
+        }
+        XPStore current = store;
+        if (current == null) {
+            return null;
+        }
+        METRICS.cacheMisses.increment();
+        // Under the player's lock, so no change to their record can land between the read and the fill
+        synchronized (lockFor(playerId)) {
+            cached = xpData.get(playerId);
+            if (cached != null) {
+                return cached;
+            }
+            PlayerXPData stored = current.load(playerId);
+            if (stored != null) {
+                xpData.putClean(playerId, stored);
+                trimCache();
+            }
+            return stored;
+        }
+    }
+
+    /**
+     * Stores an offline player's changed record until the store settles it.
+     */
+    private void putPending(@Nonnull UUID playerId, @Nonnull PlayerXPData data) {
+        xpData.put(playerId, data);
+        trimCache();
+    }
+
+    /**
+     * Keeps the cache within its capacity: evicts clean entries, least recently used first,
+     * and if dirty ones alone are over the limit, asks the writer to save them and have the
+     * store settle them, so they can be evicted too.
+     */
+    private void trimCache() {
+        int capacity = cacheCapacity;
+        if (xpData.size() <= capacity) {
+            return;
+        }
+        METRICS.cacheEvictions.add(xpData.evictClean(capacity));
+        if (xpData.dirtySize() > capacity && writeBehind.requestSettle()) {
+            METRICS.cacheWritebacks.increment();
+        }
+    }
+
+    /**
+     * Marks records the store now serves by itself as clean, so they can be evicted.
+     * A record that changed again since it was written no longer matches and stays dirty.
+     */
+    private void settled(@Nonnull Map<UUID, PlayerXPData> records) {
+        // Bumped first, so a record read from the store before this is never taken as current after it
+        settledGeneration.incrementAndGet();
+        for (Map.Entry<UUID, PlayerXPData> entry : records.entrySet()) {
+            xpData.markCleanIfEquals(entry.getKey(), entry.getValue());
+        }
+        trimCache();
+    }
+
+    /**
+     * Records that a player's XP changed so the background writer picks it up.
+     */
+    private void markDirty(@Nonnull UUID playerId) {
+        writeBehind.markDirty(playerId);
+    }
+
+    /**
+     * Hands a live player's total to the leaderboard. Re-reads after submitting, so when two
+     * grants race, the last value submitted is the latest total rather than whichever thread
+     * happened to submit last.
+     */
+    private void submitTotal(@Nonnull UUID playerId, @Nonnull PlayerXPState state) {
+        long total;
+        do {
+            total = state.getTotalXP();
+            leaderboard.submit(playerId, total);
+        } while (state.getTotalXP() != total);
+    }
+
+    private Object lockFor(@Nonnull UUID playerId) {
+        return playerLocks[(int) (playerId.getLeastSignificantBits() ^ playerId.getMostSignificantBits()) & (playerLocks.length - 1)];
+    }
+
     /**
      * Initializes and shows the XP bar for a player.
-     * Restores their previous XP if they have any saved.
+     * Their saved record is fetched asynchronously (after warm-up, if they join
+     * during it); the HUD is shown on the player's world thread once it arrives.
      */
     public void initializePlayer(@Nonnull Player player, @Nonnull PlayerRef playerRef) {
         UUID playerId = playerRef.getUuid();
-        
-        // Create the XP bar HUD
-        ExperienceBarHud xpBar = new ExperienceBarHud(playerRef);
-        
-        // Restore saved XP data BEFORE showing the HUD
-        // Use setInitialExperience to avoid updating non-existent UI elements
-        PlayerXPData savedData = xpData.get(playerId.toString());
-        if (savedData != null) {
-            xpBar.setInitialExperience(savedData.getLevel(), savedData.getCurrentXP(), savedData.getXpToNextLevel());
-            LOGGER.atInfo().log("Restored XP for " + playerRef.getUsername() + ": Level " + savedData.getLevel());
+        connectedPlayers.add(playerId);
+        onlinePlayers.put(playerId, player);
+        knownNames.put(playerId, playerRef.getUsername());
+
+        World world = player.getWorld();
+        Executor showOn = world != null ? world : Runnable::run;
+        ready.thenApplyAsync(ignored -> activate(playerId, playerRef.getUsername()), loader)
+                .thenAcceptAsync(state -> {
+                    if (state != null) {
+                        showXPBar(player, playerRef, state);
+                    }
+                }, showOn)
+                .exceptionally(e -> {
+                    LOGGER.atWarning().log("Failed to load XP for " + playerRef.getUsername() + ": " + e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Loads a connecting player's stored record into live state. Done under the player's
+     * lock, so an offline update either lands in the record read here or sees the live state.
+     */
+    @Nullable
+    private PlayerXPState activate(@Nonnull UUID playerId, @Nonnull String username) {
+        synchronized (lockFor(playerId)) {
+            if (!connectedPlayers.contains(playerId)) {
+                return null; // Left while loading
+            }
+            PlayerXPState state = playerStates.get(playerId);
+            if (state != null) {
+                return state;
+            }
+            PlayerXPData savedData;
+            long start = System.nanoTime();
+            try {
+                savedData = lookupStored(playerId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            METRICS.playerLoad.recordSince(start);
+            // Restore saved XP data BEFORE showing the HUD, re-fitted to the current curve
+            if (savedData != null) {
+                state = PlayerXPState.of(curve, savedData);
+                LOGGER.atInfo().log("Restored XP for " + username + ": Level " + state.getLevel());
+            } else {
+                state = new PlayerXPState(curve, 0);
+            }
+            playerStates.put(playerId, state);
+            return state;
+        }
+    }
+
+    private void showXPBar(@Nonnull Player player, @Nonnull PlayerRef playerRef, @Nonnull PlayerXPState state) {
+        UUID playerId = playerRef.getUuid();
+        if (!connectedPlayers.contains(playerId) || playerXPBars.containsKey(playerId)) {
+            return; // Left while loading, or already shown
         }
         
+        // Create the XP bar HUD
+        ExperienceBarHud xpBar = new ExperienceBarHud(playerRef, hudFlusher, state, leaderboard,
+                new LevelUpNotifier(levelUpNotifyWindowMs, maxNotificationsPerMinute));
         playerXPBars.put(playerId, xpBar);
         
         // Show it to the player - this calls build() which will use the restored values
@@ -124,14 +665,30 @@ public class ExperienceManager {
 
     /**
      * Removes the XP bar when a player leaves.
-     * Saves their data before removing.
+     * Keeps their record pending until the background writer persists it.
      */
     public void removePlayer(@Nonnull UUID playerId) {
-        ExperienceBarHud hud = playerXPBars.remove(playerId);
-        if (hud != null) {
-            // Save their data before removing
-            PlayerXPData data = new PlayerXPData(hud.getLevel(), hud.getCurrentXP(), hud.getXpToNextLevel());
-            xpData.put(playerId.toString(), data);
+        connectedPlayers.remove(playerId);
+        onlinePlayers.remove(playerId);
+        playerXPBars.remove(playerId);
+        synchronized (lockFor(playerId)) {
+            PlayerXPState state = playerStates.remove(playerId);
+            if (state != null) {
+                // Save their data before removing
+                detach(playerId, state);
+                markDirty(playerId);
+            }
+        }
+    }
+
+    /**
+     * Moves a departed player's final state into the pending records.
+     * Also called by a grant that raced the disconnect, so its XP isn't lost; the lock
+     * makes sure whichever of the two writes last also read the state last.
+     */
+    private void detach(@Nonnull UUID playerId, @Nonnull PlayerXPState state) {
+        synchronized (state) {
+            putPending(playerId, state.snapshot());
         }
     }
 
@@ -143,6 +700,13 @@ public class ExperienceManager {
         return playerXPBars.get(playerId);
     }
 
+    /**
+     * Checks if a player's saved record is still being fetched.
+     */
+    public boolean isLoading(@Nonnull UUID playerId) {
+        return connectedPlayers.contains(playerId) && !playerXPBars.containsKey(playerId);
+    }
+
     /**
      * Checks if a player has an XP bar initialized.
      */
@@ -153,56 +717,400 @@ public class ExperienceManager {
     /**
      * Adds XP to a player and returns true if they leveled up.
      */
-    public boolean addExperience(@Nonnull UUID playerId, int amount) {
-        ExperienceBarHud xpBar = playerXPBars.get(playerId);
-        if (xpBar != null) {
-            return xpBar.addExperience(amount);
-        }
-        return false;
+    public boolean addExperience(@Nonnull UUID playerId, long amount) {
+        return giveExperience(playerId, amount) > 0;
     }
 
     /**
-     * Gives XP to a player (can be any amount).
-     * Returns the number of levels gained.
+     * Gives XP to a player (can be any amount). Safe to call from any thread.
+     * Returns the number of levels gained. For offline players the grant is applied
+     * to their stored record in the background and 0 is returned; use
+     * {@link #giveExperienceAsync} to learn the outcome.
      */
-    public int giveExperience(@Nonnull UUID playerId, int amount) {
-        ExperienceBarHud xpBar = playerXPBars.get(playerId);
-        if (xpBar == null) return 0;
+    public int giveExperience(@Nonnull UUID playerId, long amount) {
+        METRICS.xpGrants.increment();
+        METRICS.xpGranted.add(amount);
+        PlayerXPState state = playerStates.get(playerId);
+        if (state == null) {
+            logFailure(giveExperienceAsync(playerId, amount), "grant XP to " + playerId);
+            return 0;
+        }
         
-        int startLevel = xpBar.getLevel();
-        xpBar.addExperience(amount);
-        return xpBar.getLevel() - startLevel;
+        PlayerXPState.Change change = state.add(amount);
+        if (playerStates.get(playerId) != state) {
+            detach(playerId, state); // They left mid-grant
+        }
+        markDirty(playerId);
+        submitTotal(playerId, state);
+        
+        ExperienceBarHud xpBar = playerXPBars.get(playerId);
+        if (xpBar != null) {
+            xpBar.onExperienceGained(change);
+        }
+        EVENTS.xpGained(playerId, change.getAmount(), change.getFromLevel(), change.getToLevel());
+        return change.getLevelsGained();
     }
 
     /**
-     * Resets a player's XP to level 1 with 0 XP.
+     * Resets a player's XP to level 1 with 0 XP, online or not.
      */
     public void resetExperience(@Nonnull UUID playerId) {
-        ExperienceBarHud xpBar = playerXPBars.get(playerId);
-        if (xpBar != null) {
-            xpBar.setExperience(1, 0, 100);
+        if (!ready.isDone()) {
+            // Offline records aren't loaded yet, and loading would discard this one
+            logFailure(track(ready.thenRunAsync(() -> resetExperience(playerId), loader)), "reset XP of " + playerId);
+            return;
+        }
+        synchronized (lockFor(playerId)) {
+            PlayerXPState state = playerStates.get(playerId);
+            if (state != null) {
+                state.reset();
+                refreshXPBar(playerId);
+            } else {
+                // Offline: no need to read the old record to overwrite it
+                putPending(playerId, new PlayerXPData(1, 0, curve.xpToNextLevel(1)));
+            }
+            markDirty(playerId);
+            leaderboard.submit(playerId, 0);
         }
-        
-        // Also reset saved data
-        xpData.put(playerId.toString(), new PlayerXPData());
     }
 
     /**
-     * Sets a player's level directly.
+     * Sets a player's level directly. Offline players are updated in the background.
      */
     public void setLevel(@Nonnull UUID playerId, int level) {
+        PlayerXPState state = playerStates.get(playerId);
+        if (state != null) {
+            state.setLevel(level);
+            refreshXPBar(playerId);
+            markDirty(playerId);
+            submitTotal(playerId, state);
+        } else {
+            logFailure(setLevelAsync(playerId, level), "set level of " + playerId);
+        }
+    }
+
+    private void refreshXPBar(@Nonnull UUID playerId) {
         ExperienceBarHud xpBar = playerXPBars.get(playerId);
         if (xpBar != null) {
-            int xpNeeded = PlayerXPData.calculateXPForLevel(level);
-            xpBar.setExperience(level, 0, xpNeeded);
+            xpBar.markDirty();
         }
     }
 
     /**
-     * Gets a player's current level (0 if not found).
+     * Everyone connected, whether or not their record has loaded yet.
+     */
+    @Nonnull
+    Collection<Player> onlinePlayers() {
+        return onlinePlayers.values();
+    }
+
+    /**
+     * HUDs of online players, for stats.
+     */
+    @Nonnull
+    Collection<ExperienceBarHud> xpBars() {
+        return playerXPBars.values();
+    }
+
+    /**
+     * The level curve in use.
+     */
+    @Nonnull
+    public LevelCurve getLevelCurve() {
+        return curve;
+    }
+
+    /**
+     * Gets a player's current level without touching the store, so it is safe on any thread.
+     * Only online players and offline players whose record is in memory are known; for anyone
+     * else (or while stored data is still loading) this returns 0. Use {@link #getLevelAsync}
+     * to look up any player.
      */
     public int getLevel(@Nonnull UUID playerId) {
-        ExperienceBarHud xpBar = playerXPBars.get(playerId);
-        return xpBar != null ? xpBar.getLevel() : 0;
+        PlayerXPState state = playerStates.get(playerId);
+        if (state != null) {
+            return state.getLevel();
+        }
+        return levelOf(xpData.get(playerId));
+    }
+
+    private int levelOf(@Nullable PlayerXPData stored) {
+        return stored != null ? curve.resolve(stored.getLevel(), stored.getCurrentXP()).getLevel() : 0;
+    }
+
+    /**
+     * Gives XP to a player whether or not they are online. Completes with the levels gained.
+     */
+    @Nonnull
+    public CompletableFuture<Integer> giveExperienceAsync(@Nonnull UUID playerId, long amount) {
+        return updatePlayerAsync(playerId, state -> state.add(amount));
+    }
+
+    /**
+     * Sets a player's level whether or not they are online.
+     */
+    @Nonnull
+    public CompletableFuture<Integer> setLevelAsync(@Nonnull UUID playerId, int level) {
+        return updatePlayerAsync(playerId, state -> state.setLevel(level));
+    }
+
+    /**
+     * A player's level whether or not they are online (0 if they have no record).
+     */
+    @Nonnull
+    public CompletableFuture<Integer> getLevelAsync(@Nonnull UUID playerId) {
+        return track(ready.thenApplyAsync(ignored -> {
+            PlayerXPState state = playerStates.get(playerId);
+            if (state != null) {
+                return state.getLevel();
+            }
+            try {
+                return levelOf(lookupStored(playerId));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, loader));
+    }
+
+    /**
+     * Applies {@code update} to every stored player, online or offline, that matches
+     * {@code filter} (all players if null). Runs on a background thread, streaming over
+     * the store in batches; progress messages go to {@code progress} every few seconds.
+     */
+    @Nonnull
+    public CompletableFuture<XPBulkUpdate.Result> bulkUpdate(@Nullable BiPredicate<UUID, PlayerXPData> filter,
+                                                             @Nonnull Function<PlayerXPState, PlayerXPState.Change> update,
+                                                             @Nonnull Consumer<String> progress) {
+        XPBulkUpdate job = new XPBulkUpdate(this, filter, update, progress);
+        return track(ready.thenApplyAsync(ignored -> {
+            try {
+                return job.call();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException(e.getMessage());
+            }
+        }, bulkExecutor));
+    }
+
+    private CompletableFuture<Integer> updatePlayerAsync(@Nonnull UUID playerId, @Nonnull Function<PlayerXPState, PlayerXPState.Change> update) {
+        // Queued until warm-up finishes, so an early grant lands on the loaded record
+        return track(ready.thenApplyAsync(ignored -> {
+            try {
+                return updatePlayer(playerId, null, 0, null, update, true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, loader));
+    }
+
+    /**
+     * Applies an update to a player's live state if they are online, otherwise to their
+     * stored record. Runs under the player's lock, so it cannot interleave with them
+     * connecting or leaving. Grants are published to {@link XPEvents} once the lock is released.
+     *
+     * @param hint the player's stored record, if the caller already read it
+     * @param hintGeneration the settle generation the hint was read at
+     * @param filter skips the player unless it accepts their current record
+     * @param createIfMissing whether a player with no record at all starts from level 1
+     * @return levels gained (negative if lost), or -1 if the player was skipped
+     */
+    int updatePlayer(@Nonnull UUID playerId, @Nullable PlayerXPData hint, long hintGeneration,
+                     @Nullable BiPredicate<UUID, PlayerXPData> filter, @Nonnull Function<PlayerXPState, PlayerXPState.Change> update,
+                     boolean createIfMissing) throws IOException {
+        PlayerXPState.Change change;
+        synchronized (lockFor(playerId)) {
+            change = applyUpdate(playerId, hint, hintGeneration, filter, update, createIfMissing);
+        }
+        if (change == null) {
+            return -1;
+        }
+        if (change.isGrant()) {
+            EVENTS.xpGained(playerId, change.getAmount(), change.getFromLevel(), change.getToLevel());
+        }
+        return change.getLevelsGained();
+    }
+
+    /**
+     * The body of {@link #updatePlayer}, run under the player's lock. Returns null if the player was skipped.
+     */
+    @Nullable
+    private PlayerXPState.Change applyUpdate(@Nonnull UUID playerId, @Nullable PlayerXPData hint, long hintGeneration,
+                                             @Nullable BiPredicate<UUID, PlayerXPData> filter,
+                                             @Nonnull Function<PlayerXPState, PlayerXPState.Change> update,
+                                             boolean createIfMissing) throws IOException {
+        PlayerXPState online = playerStates.get(playerId);
+        if (online != null) {
+            if (filter != null && !filter.test(playerId, online.snapshot())) {
+                return null;
+            }
+            // The lock doesn't keep out lock-free grants, so only the update's own change is its outcome
+            PlayerXPState.Change change = update.apply(online);
+            markDirty(playerId);
+            submitTotal(playerId, online);
+            ExperienceBarHud xpBar = playerXPBars.get(playerId);
+            if (xpBar != null) {
+                xpBar.onExperienceGained(change);
+            }
+            return change;
+        }
+
+        PlayerXPData stored = xpData.get(playerId);
+        if (stored == null) {
+            // The hint is only current if the store has settled nothing since it was read
+            stored = hint != null && hintGeneration == settledGeneration.get() ? hint : lookupStored(playerId);
+        }
+        if (stored == null) {
+            if (!createIfMissing) {
+                return null;
+            }
+            stored = new PlayerXPData(1, 0, curve.xpToNextLevel(1));
+        }
+        if (filter != null && !filter.test(playerId, stored)) {
+            return null;
+        }
+        PlayerXPState offline = PlayerXPState.of(curve, stored);
+        PlayerXPState.Change change = update.apply(offline);
+        putPending(playerId, offline.snapshot());
+        markDirty(playerId);
+        leaderboard.submit(playerId, change.getTotalXP());
+        return change;
+    }
+
+    /**
+     * Players who may not be settled in the store yet: pending records and everyone online.
+     */
+    @Nonnull
+    Set<UUID> unsettledPlayers() {
+        Set<UUID> players = new HashSet<>(xpData.dirtyKeys());
+        players.addAll(playerStates.keySet());
+        return players;
+    }
+
+    int storedSize() throws IOException {
+        XPStore current = store;
+        return current != null ? current.size() : 0;
+    }
+
+    /**
+     * Reads the next batch of stored records after {@code after}, in UUID order.
+     *
+     * @return the settle generation the batch was read at
+     */
+    long readStoredBatch(@Nullable UUID after, int limit, @Nonnull List<UUID> ids, @Nonnull List<PlayerXPData> records) throws IOException {
+        long generation = settledGeneration.get();
+        store.forEachAfter(after, limit, (playerId, data) -> {
+            ids.add(playerId);
+            records.add(data);
+        });
+        return generation;
+    }
+
+    /**
+     * Writes a bulk update's batch, making the store settle it when too many changed records are held in memory.
+     */
+    void flushBulkBatch() throws IOException, InterruptedException {
+        if (xpData.dirtySize() >= Math.min(BULK_PENDING_LIMIT, Math.max(cacheCapacity, XPBulkUpdate.BATCH_SIZE))) {
+            writeBehind.flushAndSettle();
+        } else {
+            writeBehind.flush();
+        }
+    }
+
+    private void logFailure(@Nonnull CompletableFuture<?> future, @Nonnull String action) {
+        future.exceptionally(e -> {
+            LOGGER.atWarning().log("Failed to " + action + ": " + e.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * A player's 1-based position on the leaderboard, or 0 if they have no record.
+     */
+    public int getRank(@Nonnull UUID playerId) {
+        return leaderboard.rankOf(playerId);
+    }
+
+    /**
+     * The {@code count} players with the most lifetime XP, highest first.
+     */
+    @Nonnull
+    public List<XPLeaderboard.Entry> getTopPlayers(int count) {
+        return leaderboard.top(count);
+    }
+
+    /**
+     * Number of players on the leaderboard.
+     */
+    public int getLeaderboardSize() {
+        return leaderboard.size();
+    }
+
+    /**
+     * A player's username if they joined this session, otherwise the start of their UUID.
+     */
+    @Nonnull
+    public String displayName(@Nonnull UUID playerId) {
+        String name = knownNames.get(playerId);
+        return name != null ? name : playerId.toString().substring(0, 8);
+    }
+
+    /**
+     * Fills the leaderboard from the store: stored records first, then pending records
+     * and live states on top. One sequential pass over the store rather than a lookup per player.
+     */
+    private void rebuildLeaderboard() {
+        long start = System.nanoTime();
+        try {
+            leaderboard.rebuild(sink -> {
+                LevelCurve current = curve;
+                store.forEach((playerId, data) -> sink.accept(playerId, PlayerXPState.totalOf(current, data)));
+                for (UUID playerId : xpData.dirtyKeys()) {
+                    PlayerXPData data = xpData.get(playerId);
+                    if (data != null) {
+                        sink.accept(playerId, PlayerXPState.totalOf(current, data));
+                    }
+                }
+                playerStates.forEach((playerId, state) -> sink.accept(playerId, state.getTotalXP()));
+            });
+            LOGGER.atInfo().log("Built XP leaderboard for " + leaderboard.size() + " players in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms.");
+        } catch (IOException | RuntimeException e) {
+            LOGGER.atWarning().log("Failed to build XP leaderboard: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Applies submitted totals and, if the top rows changed, redraws the panel on every HUD.
+     */
+    private void refreshLeaderboard() {
+        try {
+            if (!leaderboard.refresh()) {
+                return;
+            }
+            List<XPLeaderboard.Entry> top = leaderboard.top(XPLeaderboard.PANEL_SIZE);
+            Message[] lines = new Message[top.size()];
+            for (int i = 0; i < lines.length; i++) {
+                XPLeaderboard.Entry entry = top.get(i);
+                lines[i] = Message.raw(entry.getRank() + ". " + displayName(entry.getPlayerId())
+                        + " - Level " + curve.levelForTotalXP(entry.getTotalXP()));
+            }
+            leaderboard.publishPanel(lines);
+            for (ExperienceBarHud xpBar : playerXPBars.values()) {
+                xpBar.markDirty();
+            }
+        } catch (RuntimeException e) {
+            LOGGER.atWarning().log("Failed to refresh XP leaderboard: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A consistent copy of an online player's XP, or null if they aren't loaded.
+     */
+    @Nullable
+    public PlayerXPData getRecord(@Nonnull UUID playerId) {
+        PlayerXPState state = playerStates.get(playerId);
+        return state != null ? state.snapshot() : null;
     }
 }
@@ -0,0 +1,47 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.arguments.system.RequiredArg;
+import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
+import com.hypixel.hytale.server.core.command.system.basecommands.CommandBase;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Admin command to give XP to every player who has ever joined, online or offline.
+ * Runs in the background and reports progress to the sender.
+ * Usage: /givexpall <amount>
+ */
+public class GiveXPAllCommand extends CommandBase {
+
+    @Nonnull
+    private final RequiredArg<Integer> amountArg = this.withRequiredArg(
+            "amount",
+            "Amount of XP to give each player",
+            ArgTypes.INTEGER
+    );
+
+    public GiveXPAllCommand() {
+        super("givexpall", "Gives XP to every player, including offline ones. Usage: /givexpall <amount>");
+        // No permission group: operators only
+    }
+
+    @Override
+    protected void executeSync(@Nonnull CommandContext ctx) {
+        int amount = amountArg.get(ctx);
+
+        if (amount <= 0) {
+            ctx.sendMessage(Message.raw("Amount must be positive!"));
+            return;
+        }
+
+        ctx.sendMessage(Message.raw("Giving " + amount + " XP to every player..."));
+        ExperienceManager.getInstance()
+                .bulkUpdate(null, state -> state.add(amount), progress -> ctx.sendMessage(Message.raw(progress)))
+                .exceptionally(e -> {
+                    ctx.sendMessage(Message.raw("Bulk XP grant failed: " + e.getMessage()));
+                    return null;
+                });
+    }
+}
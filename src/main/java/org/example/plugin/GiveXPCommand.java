@@ -4,73 +4,90 @@ import com.hypixel.hytale.protocol.GameMode;
 import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.command.system.CommandContext;
 import com.hypixel.hytale.server.core.command.system.arguments.system.DefaultArg;
+import com.hypixel.hytale.server.core.command.system.arguments.system.OptionalArg;
 import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
 import com.hypixel.hytale.server.core.command.system.basecommands.CommandBase;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
-import com.hypixel.hytale.server.core.util.EventTitleUtil;
 
 import javax.annotation.Nonnull;
+import java.util.List;
 import java.util.UUID;
 
 /**
- * Command to give XP to yourself.
- * Usage: /givexp [amount]
+ * Command to give XP to yourself or, with permission, to the players a selector
+ * matches (see {@link XPTargets}).
+ * Usage: /givexp [amount] [target]
  */
 public class GiveXPCommand extends CommandBase {
 
     @Nonnull
     private final DefaultArg<Integer> amountArg = this.withDefaultArg(
-            "amount", 
-            "Amount of XP to give", 
-            ArgTypes.INTEGER, 
+            "amount",
+            "Amount of XP to give",
+            ArgTypes.INTEGER,
             100,  // Default amount
             "Default: 100 XP"
     );
 
+    @Nonnull
+    private final OptionalArg<String> targetArg = this.withOptionalArg(
+            "target",
+            "Player name or UUID, @a (everyone online), @w (your world) or @w:<world>",
+            ArgTypes.STRING
+    );
+
     public GiveXPCommand() {
-        super("givexp", "Gives XP to yourself. Usage: /givexp [amount]");
-        this.setPermissionGroup(GameMode.Adventure); // Anyone can use it
+        super("givexp", "Gives XP to yourself or other players. Usage: /givexp [amount] [target]");
+        this.setPermissionGroup(GameMode.Adventure); // Anyone can use it; targets need XPTargets.PERMISSION
     }
 
     @Override
     protected void executeSync(@Nonnull CommandContext ctx) {
+        int amount = amountArg.get(ctx);
+
+        if (amount <= 0) {
+            ctx.sendMessage(Message.raw("Amount must be positive!"));
+            return;
+        }
+
+        if (targetArg.provided(ctx)) {
+            giveToTargets(ctx, targetArg.get(ctx), amount);
+            return;
+        }
+
         if (!ctx.isPlayer()) {
-            ctx.sendMessage(Message.raw("This command can only be used by players."));
+            ctx.sendMessage(Message.raw("Pick a target when using this command from the console."));
             return;
         }
 
         Player player = ctx.senderAs(Player.class);
         PlayerRef playerRef = player.getPlayerRef();
         UUID playerId = playerRef.getUuid();
-        
-        int amount = amountArg.get(ctx);
-        
-        if (amount <= 0) {
-            ctx.sendMessage(Message.raw("Amount must be positive!"));
-            return;
-        }
 
         ExperienceManager xpManager = ExperienceManager.getInstance();
         ExperienceBarHud xpBar = xpManager.getXPBar(playerId);
-        
+
         if (xpBar == null) {
             ctx.sendMessage(Message.raw("XP Bar not initialized. Please rejoin the server."));
             return;
         }
 
-        int startLevel = xpBar.getLevel();
-        int levelsGained = xpManager.giveExperience(playerId, amount);
-        
-        ctx.sendMessage(Message.raw("+" + amount + " XP! (" + xpBar.getCurrentXP() + "/" + xpBar.getXpToNextLevel() + ")"));
-        
-        if (levelsGained > 0) {
-            Message title = Message.raw("LEVEL UP!");
-            Message subtitle = Message.raw("You are now level " + xpBar.getLevel() + 
-                    (levelsGained > 1 ? " (+" + levelsGained + " levels!)" : ""));
-            EventTitleUtil.showEventTitleToPlayer(playerRef, title, subtitle, true);
-            ctx.sendMessage(Message.raw("Congratulations! You gained " + levelsGained + " level(s)!"));
+        xpManager.giveExperience(playerId, amount);
+        PlayerXPData record = xpBar.getState().snapshot();
+
+        // Level-ups are announced by the XP bar's notifier, merged with any others
+        ctx.sendMessage(Message.raw("+" + amount + " XP! (" + record.getCurrentXP() + "/" + record.getXpToNextLevel() + ")"));
+    }
+
+    private void giveToTargets(@Nonnull CommandContext ctx, @Nonnull String selector, int amount) {
+        List<Player> targets = XPTargets.resolve(ctx, selector);
+        if (targets == null) {
+            return;
         }
+
+        ExperienceManager xpManager = ExperienceManager.getInstance();
+        XPTargets.forEach(targets, target -> xpManager.giveExperience(target.getPlayerRef().getUuid(), amount))
+                .thenAccept(count -> ctx.sendMessage(Message.raw("Gave " + amount + " XP to " + count + " players.")));
     }
 }
-
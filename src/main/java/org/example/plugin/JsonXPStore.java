@@ -0,0 +1,151 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps every record in memory and rewrites xp_data.json on each upsert.
+ *
+ * The file is the same one older versions wrote, human-readable and easy
+ * to edit while the server is down. Every write streams the whole file
+ * again, so it is meant for small servers; records settle as soon as the
+ * new file is in place.
+ */
+public class JsonXPStore implements XPStore {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final XPMetrics METRICS = XPMetrics.get();
+
+    private final Path file;
+
+    // Sorted, so iteration after a key is a tail view. Values are never handed out or mutated.
+    private final NavigableMap<UUID, PlayerXPData> records = new ConcurrentSkipListMap<>();
+
+    private volatile Listener listener = settled -> { };
+
+    public JsonXPStore(@Nonnull Path dir) {
+        this.file = dir.resolve("xp_data.json");
+    }
+
+    @Nonnull
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public long lastModified() {
+        try {
+            return Files.exists(file) ? Files.getLastModifiedTime(file).toMillis() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public void open(@Nonnull Listener listener, @Nonnull BiConsumer<UUID, PlayerXPData> unsettled,
+                     @Nonnull Executor parallel) throws IOException {
+        this.listener = listener;
+        long start = System.nanoTime();
+        records.clear();
+        // A leftover temp file is an interrupted save; the previous file is still whole
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".tmp"));
+        if (Files.exists(file)) {
+            XPJsonFormat.read(file, records::put);
+            METRICS.loadBytes.add(sizeOnDisk());
+        }
+        METRICS.dataLoad.recordSince(start);
+        LOGGER.atInfo().log("Loaded XP data for " + records.size() + " players from " + file.getFileName() + ".");
+    }
+
+    @Nullable
+    @Override
+    public PlayerXPData load(@Nonnull UUID playerId) {
+        return copyOf(records.get(playerId));
+    }
+
+    /**
+     * Applies the records and rewrites the file. Synchronized so two writers cannot
+     * interleave their files, and a failed write leaves memory matching the old file.
+     */
+    @Override
+    public synchronized void upsertBatch(@Nonnull Map<UUID, PlayerXPData> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(file.getParent());
+        try (XPJsonFormat.Writer writer = new XPJsonFormat.Writer(file)) {
+            // Merged on the fly so the map only changes once the new file is committed
+            for (Map.Entry<UUID, PlayerXPData> entry : records.entrySet()) {
+                PlayerXPData changed = batch.get(entry.getKey());
+                writer.add(entry.getKey(), changed != null ? changed : entry.getValue());
+            }
+            for (Map.Entry<UUID, PlayerXPData> entry : batch.entrySet()) {
+                if (!records.containsKey(entry.getKey())) {
+                    writer.add(entry.getKey(), entry.getValue());
+                }
+            }
+            writer.commit();
+        }
+        for (Map.Entry<UUID, PlayerXPData> entry : batch.entrySet()) {
+            records.put(entry.getKey(), copyOf(entry.getValue()));
+        }
+        METRICS.savedBytes.add(sizeOnDisk());
+        listener.settled(batch);
+    }
+
+    @Override
+    public void forEachAfter(@Nullable UUID after, int limit, @Nonnull BiConsumer<UUID, PlayerXPData> consumer) {
+        NavigableMap<UUID, PlayerXPData> tail = after != null ? records.tailMap(after, false) : records;
+        int count = 0;
+        for (Map.Entry<UUID, PlayerXPData> entry : tail.entrySet()) {
+            if (count++ >= limit) {
+                break;
+            }
+            consumer.accept(entry.getKey(), copyOf(entry.getValue()));
+        }
+    }
+
+    @Override
+    public void forEach(@Nonnull BiConsumer<UUID, PlayerXPData> consumer) {
+        records.forEach((playerId, data) -> consumer.accept(playerId, copyOf(data)));
+    }
+
+    @Override
+    public int size() {
+        return records.size();
+    }
+
+    @Override
+    public long sizeOnDisk() {
+        try {
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Nothing to do: every upsert has already been written in full.
+     */
+    @Override
+    public void close() {
+        records.clear();
+    }
+
+    @Nullable
+    private static PlayerXPData copyOf(@Nullable PlayerXPData data) {
+        return data != null ? new PlayerXPData(data.getLevel(), data.getCurrentXP(), data.getXpToNextLevel()) : null;
+    }
+}
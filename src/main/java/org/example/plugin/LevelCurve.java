@@ -0,0 +1,194 @@
+package org.example.plugin;
+
+import javax.annotation.Nonnull;
+import java.util.Locale;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Maps XP to levels.
+ *
+ * A curve is defined by the XP needed to advance from each level to the next
+ * (linear, polynomial, exponential or an explicit table). On construction
+ * that is turned into a cumulative table of the total XP needed to reach each
+ * level, so resolving any grant is a binary search over the table rather than
+ * one step per level gained. Totals are 64-bit and saturate instead of
+ * overflowing; levels stop at {@link #maxLevel()}, and at the cap the bar
+ * fills up and stays full.
+ */
+public final class LevelCurve {
+
+    static final int DEFAULT_MAX_LEVEL = 10_000;
+
+    /**
+     * The original curve: 100 * level XP to advance.
+     */
+    public static final LevelCurve DEFAULT = linear(100, DEFAULT_MAX_LEVEL);
+
+    // totals[i] = total XP needed to reach level i + 1; totals[maxLevel] bounds the last level
+    private final long[] totals;
+    private final int maxLevel;
+    private final String description;
+
+    private LevelCurve(long[] totals, int maxLevel, String description) {
+        this.totals = totals;
+        this.maxLevel = maxLevel;
+        this.description = description;
+    }
+
+    /**
+     * {@code base * level} XP to advance from each level.
+     */
+    @Nonnull
+    public static LevelCurve linear(long base, int maxLevel) {
+        return build(level -> base * level, maxLevel, "linear(" + base + ")");
+    }
+
+    /**
+     * {@code base * level^exponent} XP to advance from each level.
+     */
+    @Nonnull
+    public static LevelCurve polynomial(double base, double exponent, int maxLevel) {
+        return build(level -> Math.round(base * Math.pow(level, exponent)), maxLevel,
+                String.format(Locale.ROOT, "polynomial(%s, %s)", base, exponent));
+    }
+
+    /**
+     * {@code base * growth^(level - 1)} XP to advance from each level.
+     */
+    @Nonnull
+    public static LevelCurve exponential(double base, double growth, int maxLevel) {
+        return build(level -> Math.round(base * Math.pow(growth, level - 1)), maxLevel,
+                String.format(Locale.ROOT, "exponential(%s, %s)", base, growth));
+    }
+
+    /**
+     * Explicit XP to advance from each level, starting at level 1. Levels past the end of
+     * the table repeat its last entry.
+     */
+    @Nonnull
+    public static LevelCurve table(@Nonnull long[] xpPerLevel, int maxLevel) {
+        if (xpPerLevel.length == 0) {
+            throw new IllegalArgumentException("Level table is empty");
+        }
+        long[] copy = xpPerLevel.clone();
+        return build(level -> copy[Math.min(level, copy.length) - 1], maxLevel, "table(" + copy.length + " levels)");
+    }
+
+    private static LevelCurve build(IntToLongFunction xpForLevel, int maxLevel, String description) {
+        if (maxLevel < 1) {
+            throw new IllegalArgumentException("maxLevel must be at least 1");
+        }
+        long[] totals = new long[maxLevel + 1];
+        for (int level = 1; level <= maxLevel; level++) {
+            long needed = Math.max(1, xpForLevel.applyAsLong(level));
+            long total = addSaturated(totals[level - 1], needed);
+            if (total == Long.MAX_VALUE) {
+                // Totals no longer fit in a long; make this level the cap
+                long[] capped = new long[level + 1];
+                System.arraycopy(totals, 0, capped, 0, level);
+                capped[level] = Long.MAX_VALUE;
+                return new LevelCurve(capped, level, description);
+            }
+            totals[level] = total;
+        }
+        return new LevelCurve(totals, maxLevel, description);
+    }
+
+    public int maxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * XP needed to advance from {@code level} to the next one.
+     */
+    public long xpToNextLevel(int level) {
+        int clamped = clamp(level);
+        return totals[clamped] - totals[clamped - 1];
+    }
+
+    /**
+     * Total XP needed to reach {@code level} from zero.
+     */
+    public long totalXPForLevel(int level) {
+        return totals[clamp(level) - 1];
+    }
+
+    /**
+     * The level a player with {@code totalXP} lifetime XP is at. O(log maxLevel).
+     */
+    public int levelForTotalXP(long totalXP) {
+        // Largest level whose threshold is <= totalXP
+        int low = 1;
+        int high = maxLevel;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (totals[mid - 1] <= totalXP) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Normalizes a level and XP into that level into a valid record on this curve,
+     * carrying any excess XP into further levels. Used both to apply grants and to
+     * fit records saved under a different curve.
+     */
+    @Nonnull
+    public PlayerXPData resolve(int level, long currentXP) {
+        long total = addSaturated(totalXPForLevel(level), Math.max(0, currentXP));
+        int resolvedLevel = levelForTotalXP(total);
+        long needed = xpToNextLevel(resolvedLevel);
+        long into = Math.min(total - totalXPForLevel(resolvedLevel), needed);
+        return new PlayerXPData(resolvedLevel, into, needed);
+    }
+
+    private int clamp(int level) {
+        return Math.max(1, Math.min(level, maxLevel));
+    }
+
+    static long addSaturated(long a, long b) {
+        long sum = a + b;
+        // Overflow only if both operands have the same sign and the result's sign differs
+        if (((a ^ sum) & (b ^ sum)) < 0) {
+            return a < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return description + ", max level " + maxLevel;
+    }
+
+    /**
+     * Config form of a curve, as it appears in config.json.
+     */
+    public static class Spec {
+        // linear, polynomial, exponential or table
+        private String type = "linear";
+        private double base = 100;
+        private double exponent = 2.0;
+        private double growth = 1.1;
+        private long[] table = new long[0];
+        private int maxLevel = DEFAULT_MAX_LEVEL;
+
+        /**
+         * Builds the curve.
+         *
+         * @throws IllegalArgumentException if the type is unknown or the parameters are invalid
+         */
+        @Nonnull
+        public LevelCurve build() {
+            return switch (type == null ? "" : type.toLowerCase(Locale.ROOT)) {
+                case "linear" -> linear(Math.round(base), maxLevel);
+                case "polynomial" -> polynomial(base, exponent, maxLevel);
+                case "exponential" -> exponential(base, growth, maxLevel);
+                case "table" -> table(table == null ? new long[0] : table, maxLevel);
+                default -> throw new IllegalArgumentException("Unknown level curve type: " + type);
+            };
+        }
+    }
+}
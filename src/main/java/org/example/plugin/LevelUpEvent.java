@@ -0,0 +1,47 @@
+package org.example.plugin;
+
+import javax.annotation.Nonnull;
+import java.util.UUID;
+
+/**
+ * A player reached a higher level through an XP grant. Published by {@link XPEvents};
+ * batched listeners get one event per player per tick, spanning all their level-ups in it.
+ */
+public final class LevelUpEvent {
+
+    private final UUID playerId;
+    private final int fromLevel;
+    private final int toLevel;
+
+    public LevelUpEvent(@Nonnull UUID playerId, int fromLevel, int toLevel) {
+        this.playerId = playerId;
+        this.fromLevel = fromLevel;
+        this.toLevel = toLevel;
+    }
+
+    @Nonnull
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public int getFromLevel() {
+        return fromLevel;
+    }
+
+    public int getToLevel() {
+        return toLevel;
+    }
+
+    /**
+     * This level-up followed by {@code later}, as one.
+     */
+    @Nonnull
+    LevelUpEvent merge(@Nonnull LevelUpEvent later) {
+        return new LevelUpEvent(playerId, fromLevel, later.toLevel);
+    }
+
+    @Override
+    public String toString() {
+        return "LevelUpEvent{" + playerId + ", level " + fromLevel + " -> " + toLevel + "}";
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.server.core.Message;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects one player's level-ups into as few notifications as possible.
+ *
+ * Level-ups from any source (mining, commands, bulk updates) are recorded
+ * here by the player's HUD, and the HUD's flush sends at most one
+ * notification once the first level-up is {@code windowMs} old, covering
+ * everything gained in between ("Level 12 -> 17"). On top of that, at most
+ * {@code perMinute} notifications are sent per minute, with short bursts
+ * allowed; while over budget, level-ups keep merging into the pending one.
+ */
+final class LevelUpNotifier {
+
+    private final long windowNanos;
+    // Spacing of notifications under the budget, and how far ahead of it a burst may run
+    private final long intervalNanos;
+    private final long burstNanos;
+
+    // Pending notification; fromLevel is -1 when nothing is pending. Guarded by this.
+    private int fromLevel = -1;
+    private int toLevel;
+    private long pendingSince;
+
+    // Earliest time the budget allows the next notification, minus the burst allowance
+    private long allowedAt = System.nanoTime();
+
+    LevelUpNotifier(long windowMs, int perMinute) {
+        int budget = Math.max(1, perMinute);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMs));
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / budget;
+        this.burstNanos = intervalNanos * (budget - 1);
+    }
+
+    /**
+     * Records a level-up from {@code from} to {@code to}.
+     */
+    synchronized void levelUp(int from, int to, long now) {
+        if (fromLevel < 0) {
+            fromLevel = from;
+            toLevel = to;
+            pendingSince = now;
+        } else {
+            toLevel = Math.max(toLevel, to);
+        }
+    }
+
+    synchronized boolean isPending() {
+        return fromLevel >= 0;
+    }
+
+    /**
+     * The notification text to send now, or null if nothing is due or the budget is used up.
+     * A pending notification is dropped if the player is no longer above the level it started from.
+     */
+    @Nullable
+    synchronized Message poll(int currentLevel, long now) {
+        if (fromLevel < 0 || now - pendingSince < windowNanos) {
+            return null;
+        }
+        if (currentLevel <= fromLevel) {
+            fromLevel = -1; // Reset or lowered in the meantime
+            return null;
+        }
+        if (allowedAt - now > burstNanos) {
+            return null;
+        }
+        allowedAt = Math.max(allowedAt, now) + intervalNanos;
+
+        int to = Math.min(toLevel, currentLevel);
+        Message text = to - fromLevel == 1
+                ? Message.raw("You reached level " + to + "!")
+                : Message.raw("Level " + fromLevel + " \u2192 " + to);
+        fromLevel = -1;
+        return text;
+    }
+}
@@ -0,0 +1,202 @@
+package org.example.plugin;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled, immutable form of the mining XP rules.
+ *
+ * Rules are checked in file order and the first one whose block and tool
+ * patterns both match wins. Instead of scanning the rules per event, the
+ * table memoizes two things the first time each ID is seen: for a block ID,
+ * the ordered list of rules that could apply to it; for a tool ID, a bitmask
+ * of the tool pattern groups it matches. A lookup is then two hash gets and
+ * a short walk over that block's candidates, with no allocation.
+ *
+ * A new table is built on every reload and swapped in whole, so the caches
+ * never hold results from an older rule set.
+ */
+public final class MiningRuleTable {
+
+    // At most 64 distinct tool patterns, one bit each
+    static final int MAX_TOOL_GROUPS = 64;
+
+    private static final BlockRules NO_RULES = new BlockRules(new long[0], new int[0]);
+
+    private final String[][] blockPatterns;
+    private final int[] toolGroupOfRule;
+    private final int[] xpOfRule;
+    private final String[][] toolGroups;
+
+    private final Map<String, BlockRules> blockCache = new ConcurrentHashMap<>();
+    private final Map<String, Long> toolCache = new ConcurrentHashMap<>();
+
+    private MiningRuleTable(String[][] blockPatterns, int[] toolGroupOfRule, int[] xpOfRule, String[][] toolGroups) {
+        this.blockPatterns = blockPatterns;
+        this.toolGroupOfRule = toolGroupOfRule;
+        this.xpOfRule = xpOfRule;
+        this.toolGroups = toolGroups;
+    }
+
+    /**
+     * A single uncompiled rule. Patterns are case-insensitive substrings separated by '|';
+     * "*" matches anything.
+     */
+    public static final class Rule {
+        final String block;
+        final String tool;
+        final int xp;
+
+        public Rule(@Nonnull String block, @Nonnull String tool, int xp) {
+            this.block = block;
+            this.tool = tool;
+            this.xp = xp;
+        }
+    }
+
+    /**
+     * Compiles rules into a lookup table.
+     *
+     * @throws IllegalArgumentException if the rules use more than {@value #MAX_TOOL_GROUPS} distinct tool patterns
+     */
+    @Nonnull
+    public static MiningRuleTable compile(@Nonnull List<Rule> rules) {
+        Map<String, Integer> toolGroupIds = new LinkedHashMap<>();
+        List<String[]> toolGroups = new ArrayList<>();
+        String[][] blockPatterns = new String[rules.size()][];
+        int[] toolGroupOfRule = new int[rules.size()];
+        int[] xpOfRule = new int[rules.size()];
+
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            blockPatterns[i] = split(rule.block);
+            String toolKey = String.join("|", split(rule.tool));
+            Integer group = toolGroupIds.get(toolKey);
+            if (group == null) {
+                group = toolGroups.size();
+                if (group >= MAX_TOOL_GROUPS) {
+                    throw new IllegalArgumentException("Too many distinct tool patterns (max " + MAX_TOOL_GROUPS + ")");
+                }
+                toolGroupIds.put(toolKey, group);
+                toolGroups.add(split(rule.tool));
+            }
+            toolGroupOfRule[i] = group;
+            xpOfRule[i] = rule.xp;
+        }
+        return new MiningRuleTable(blockPatterns, toolGroupOfRule, xpOfRule, toolGroups.toArray(new String[0][]));
+    }
+
+    public int ruleCount() {
+        return xpOfRule.length;
+    }
+
+    /**
+     * XP for breaking a block with a tool, or 0 if no rule applies.
+     */
+    public int xpFor(@Nonnull String blockId, @Nonnull String toolId) {
+        BlockRules candidates = blockRules(blockId);
+        if (candidates.toolMasks.length == 0) {
+            return 0;
+        }
+        long toolMask = toolMask(toolId);
+        for (int i = 0; i < candidates.toolMasks.length; i++) {
+            if ((candidates.toolMasks[i] & toolMask) != 0) {
+                return candidates.xp[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Whether any rule could give XP for this block, regardless of tool.
+     * Lets callers skip the tool lookup for most blocks.
+     */
+    public boolean mayGiveXP(@Nonnull String blockId) {
+        return blockRules(blockId).toolMasks.length > 0;
+    }
+
+    private BlockRules blockRules(String blockId) {
+        BlockRules cached = blockCache.get(blockId);
+        if (cached == null) {
+            cached = compileBlock(blockId);
+            blockCache.put(blockId, cached);
+        }
+        return cached;
+    }
+
+    private long toolMask(String toolId) {
+        Long cached = toolCache.get(toolId);
+        if (cached == null) {
+            cached = compileTool(toolId);
+            toolCache.put(toolId, cached);
+        }
+        return cached;
+    }
+
+    private BlockRules compileBlock(String blockId) {
+        String lower = blockId.toLowerCase(Locale.ROOT);
+        List<Integer> matching = new ArrayList<>();
+        for (int rule = 0; rule < blockPatterns.length; rule++) {
+            if (matchesAny(lower, blockPatterns[rule])) {
+                matching.add(rule);
+            }
+        }
+        if (matching.isEmpty()) {
+            return NO_RULES;
+        }
+        long[] toolMasks = new long[matching.size()];
+        int[] xp = new int[matching.size()];
+        for (int i = 0; i < matching.size(); i++) {
+            int rule = matching.get(i);
+            toolMasks[i] = 1L << toolGroupOfRule[rule];
+            xp[i] = xpOfRule[rule];
+        }
+        return new BlockRules(toolMasks, xp);
+    }
+
+    private long compileTool(String toolId) {
+        String lower = toolId.toLowerCase(Locale.ROOT);
+        long mask = 0;
+        for (int group = 0; group < toolGroups.length; group++) {
+            if (matchesAny(lower, toolGroups[group])) {
+                mask |= 1L << group;
+            }
+        }
+        return mask;
+    }
+
+    private static boolean matchesAny(String lowerId, String[] patterns) {
+        for (String pattern : patterns) {
+            if (pattern.equals("*") || lowerId.contains(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] split(String patterns) {
+        return Arrays.stream(patterns.split("\\|"))
+                .map(pattern -> pattern.trim().toLowerCase(Locale.ROOT))
+                .filter(pattern -> !pattern.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Candidate rules for one block ID, in priority order.
+     */
+    private static final class BlockRules {
+        final long[] toolMasks;
+        final int[] xp;
+
+        BlockRules(long[] toolMasks, int[] xp) {
+            this.toolMasks = toolMasks;
+            this.xp = xp;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.plugin;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.HytaleServer;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mining XP rules loaded from plugins/ExamplePlugin/mining_rules.json.
+ *
+ * The file is compiled into a {@link MiningRuleTable} and published through an
+ * atomic reference. A background task watches the file and swaps in a freshly
+ * compiled table when it changes, so the event path only ever does a volatile
+ * read. A file that fails to parse leaves the previous rules in place.
+ */
+public class MiningRules {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String DEFAULT_RESOURCE = "/mining_rules.json";
+
+    private final Path file;
+    private final AtomicReference<MiningRuleTable> table;
+
+    private ScheduledFuture<?> watchTask;
+    private long loadedModified = Long.MIN_VALUE;
+
+    public MiningRules(@Nonnull Path dataDir) {
+        this.file = dataDir.resolve("mining_rules.json");
+        this.table = new AtomicReference<>(MiningRuleTable.compile(List.of()));
+    }
+
+    /**
+     * The current compiled rules. Never null.
+     */
+    @Nonnull
+    public MiningRuleTable current() {
+        return table.get();
+    }
+
+    /**
+     * Loads the rules file, writing the bundled defaults first if it does not exist.
+     */
+    public void load() {
+        if (!Files.exists(file)) {
+            writeDefaults();
+        }
+        reload();
+    }
+
+    /**
+     * Polls the rules file for changes and reloads it when its timestamp moves.
+     */
+    public void startWatching(long intervalMs) {
+        if (watchTask != null || intervalMs <= 0) {
+            return;
+        }
+        watchTask = HytaleServer.SCHEDULED_EXECUTOR.scheduleWithFixedDelay(this::reloadIfChanged, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        if (watchTask != null) {
+            watchTask.cancel(false);
+            watchTask = null;
+        }
+    }
+
+    private void reloadIfChanged() {
+        try {
+            if (Files.exists(file) && Files.getLastModifiedTime(file).toMillis() != loadedModified) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.atWarning().log("Failed to check mining rules: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parses and compiles the rules file, then swaps it in. Returns false and keeps the old rules on error.
+     */
+    public synchronized boolean reload() {
+        try {
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            MiningRuleTable compiled = compile(GSON.fromJson(Files.readString(file), RuleFile.class));
+            table.set(compiled);
+            loadedModified = modified;
+            LOGGER.atInfo().log("Loaded " + compiled.ruleCount() + " mining XP rules");
+            return true;
+        } catch (IOException | JsonParseException | IllegalArgumentException e) {
+            LOGGER.atWarning().log("Failed to load mining rules, keeping previous rules: " + e.getMessage());
+            try {
+                // Don't retry the same broken file every poll
+                loadedModified = Files.getLastModifiedTime(file).toMillis();
+            } catch (IOException ignored) {
+            }
+            return false;
+        }
+    }
+
+    private static MiningRuleTable compile(RuleFile ruleFile) {
+        if (ruleFile == null || ruleFile.rules == null) {
+            throw new IllegalArgumentException("No \"rules\" array");
+        }
+        List<MiningRuleTable.Rule> rules = new ArrayList<>(ruleFile.rules.size());
+        for (RuleDef def : ruleFile.rules) {
+            if (def == null || def.block == null || def.tool == null) {
+                throw new IllegalArgumentException("Every rule needs \"block\" and \"tool\" patterns");
+            }
+            // Multipliers are folded in at compile time so the event path only reads an int
+            int xp = (int) Math.round(def.xp * def.multiplier * ruleFile.globalMultiplier);
+            rules.add(new MiningRuleTable.Rule(def.block, def.tool, xp));
+        }
+        return MiningRuleTable.compile(rules);
+    }
+
+    private void writeDefaults() {
+        try (InputStream in = MiningRules.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                LOGGER.atWarning().log("Bundled mining rules are missing; no mining XP will be given");
+                return;
+            }
+            Files.createDirectories(file.getParent());
+            Files.copy(in, file);
+        } catch (IOException e) {
+            LOGGER.atWarning().log("Failed to write default mining rules: " + e.getMessage());
+        }
+    }
+
+    /**
+     * JSON shape of the rules file.
+     */
+    private static class RuleFile {
+        double globalMultiplier = 1.0;
+        List<RuleDef> rules;
+    }
+
+    private static class RuleDef {
+        String block;
+        String tool;
+        int xp;
+        double multiplier = 1.0;
+    }
+}
@@ -1,9 +1,7 @@
 package org.example.plugin;
 
-import com.hypixel.hytale.component.Archetype;
 import com.hypixel.hytale.component.ArchetypeChunk;
 import com.hypixel.hytale.component.CommandBuffer;
-import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.component.query.Query;
 import com.hypixel.hytale.component.system.EntityEventSystem;
@@ -17,96 +15,97 @@ import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * ECS System that grants XP when a player breaks rock or dirt with a pickaxe.
+ * ECS System that grants XP when a player breaks a block, as configured by {@link MiningRules}.
+ * XP is added to the player's {@link PendingXP} (attached by {@link PendingXPAttachSystem})
+ * and applied by {@link PendingXPSystem}.
  */
 public class MiningXPSystem extends EntityEventSystem<EntityStore, BreakBlockEvent> {
 
     private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
-    
-    // XP amount per block mined
-    private static final int XP_PER_BLOCK = 1;
-    
-    // Block types that give XP (partial match - block ID contains these strings)
-    private static final Set<String> MINEABLE_BLOCKS = Set.of(
-        "Stone",
-        "Rock",
-        "Dirt",
-        "Cobblestone",
-        "Granite",
-        "Sandstone",
-        "Ore"
-    );
-    
-    // Item types that count as pickaxes (partial match)
-    private static final Set<String> PICKAXE_ITEMS = Set.of(
-        "Pickaxe",
-        "Pick"
-    );
+    private static final XPMetrics METRICS = XPMetrics.get();
 
-    public MiningXPSystem() {
+    // One break in this many is timed; counting every break is cheap, reading the clock twice is not
+    private static final int TIMING_SAMPLE = 16;
+
+    // Compiled rules from mining_rules.json; swapped in place on reload
+    private final MiningRules rules;
+
+    public MiningXPSystem(@Nonnull MiningRules rules) {
         super(BreakBlockEvent.class);
+        this.rules = rules;
     }
 
     @Override
     @Nullable
     public Query<EntityStore> getQuery() {
-        // Match all entities (no specific component requirements)
-        return Archetype.empty();
+        // Only players can earn XP, so skip every other entity's break events
+        return Query.and(Player.getComponentType(), PlayerRef.getComponentType());
     }
 
     @Override
     public void handle(int index, @Nonnull ArchetypeChunk<EntityStore> archetypeChunk, 
                        @Nonnull Store<EntityStore> store, @Nonnull CommandBuffer<EntityStore> commandBuffer, 
                        @Nonnull BreakBlockEvent event) {
-        
-        // Get the entity that broke the block
-        Ref<EntityStore> ref = archetypeChunk.getReferenceTo(index);
-        
-        // Check if it's a player
-        Player player = store.getComponent(ref, Player.getComponentType());
-        if (player == null) {
-            return; // Not a player, ignore
+        METRICS.miningBreaks.increment();
+        long start = ThreadLocalRandom.current().nextInt(TIMING_SAMPLE) == 0 ? System.nanoTime() : 0;
+
+        if (queueXP(index, archetypeChunk, event) > 0) {
+            METRICS.miningRewarded.increment();
         }
-        
-        // Get the PlayerRef for XP management
-        PlayerRef playerRef = store.getComponent(ref, PlayerRef.getComponentType());
-        if (playerRef == null) {
-            return;
+
+        if (start != 0) {
+            METRICS.miningHandle.recordSince(start);
         }
-        
-        // Check if the block is a mineable type
+    }
+
+    /**
+     * Adds the XP for this break to the player's PendingXP.
+     *
+     * @return the XP queued, or 0 if the break gives none
+     */
+    private int queueXP(int index, @Nonnull ArchetypeChunk<EntityStore> archetypeChunk, @Nonnull BreakBlockEvent event) {
+        // Read the table once so a reload mid-event can't mix two rule sets
+        MiningRuleTable table = rules.current();
+
+        // Check if any rule gives XP for this block
         BlockType blockType = event.getBlockType();
         String blockId = blockType.getId();
         
-        boolean isMineableBlock = MINEABLE_BLOCKS.stream()
-            .anyMatch(type -> blockId.toLowerCase().contains(type.toLowerCase()));
-        
-        if (!isMineableBlock) {
-            return; // Not a block we give XP for
+        if (!table.mayGiveXP(blockId)) {
+            return 0; // Not a block we give XP for
         }
         
-        // Check if the player is using a pickaxe
+        // Check which tool the player is using
         ItemStack itemInHand = event.getItemInHand();
         if (itemInHand == null || itemInHand.isEmpty()) {
-            return; // No tool in hand
+            return 0; // No tool in hand
         }
         
         String itemId = itemInHand.getItemId();
-        boolean isPickaxe = PICKAXE_ITEMS.stream()
-            .anyMatch(type -> itemId.toLowerCase().contains(type.toLowerCase()));
-        
-        if (!isPickaxe) {
-            return; // Not using a pickaxe
+        int xp = table.xpFor(blockId, itemId);
+        if (xp <= 0) {
+            return 0; // No rule for this block and tool
         }
         
-        // Give XP to the player!
-        ExperienceManager.getInstance().giveExperience(playerRef.getUuid(), XP_PER_BLOCK);
+        // Queue the XP; PendingXPSystem applies it once per tick
+        PendingXP pending = archetypeChunk.getComponent(index, PendingXP.getComponentType());
+        if (pending == null) {
+            // PendingXPAttachSystem's add hasn't been applied yet; grant this break directly
+            PlayerRef playerRef = archetypeChunk.getComponent(index, PlayerRef.getComponentType());
+            if (playerRef == null) {
+                return 0;
+            }
+            ExperienceManager.getInstance().giveExperience(playerRef.getUuid(), xp);
+            return xp;
+        }
+        pending.add(xp);
         
         // Optional: Log for debugging
-        // LOGGER.atFine().log("Player " + playerRef.getUsername() + " mined " + blockId + " with " + itemId + ", gained " + XP_PER_BLOCK + " XP");
+        // LOGGER.atFine().log("Mined " + blockId + " with " + itemId + ", queued " + xp + " XP");
+        return xp;
     }
 }
 
@@ -0,0 +1,64 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.component.Component;
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+import javax.annotation.Nonnull;
+
+/**
+ * XP earned by a player entity this tick that has not been applied yet.
+ *
+ * {@link MiningXPSystem} adds to it on every qualifying block break and
+ * {@link PendingXPSystem} drains it once per tick, so the event path is a
+ * single int add. Like other components it is only touched on the world
+ * thread, so it needs no synchronization. It is not persisted: at most one
+ * tick's worth of XP is pending at any time.
+ */
+public class PendingXP implements Component<EntityStore> {
+
+    private static ComponentType<EntityStore, PendingXP> componentType;
+
+    private int amount;
+
+    public PendingXP() {
+    }
+
+    public PendingXP(int amount) {
+        this.amount = amount;
+    }
+
+    /**
+     * The registered component type. Set once during plugin setup.
+     */
+    @Nonnull
+    public static ComponentType<EntityStore, PendingXP> getComponentType() {
+        return componentType;
+    }
+
+    static void setComponentType(@Nonnull ComponentType<EntityStore, PendingXP> type) {
+        componentType = type;
+    }
+
+    public void add(int xp) {
+        amount += xp;
+    }
+
+    public boolean isEmpty() {
+        return amount == 0;
+    }
+
+    /**
+     * Returns the pending XP and resets it to zero.
+     */
+    public int drain() {
+        int drained = amount;
+        amount = 0;
+        return drained;
+    }
+
+    @Override
+    public Component<EntityStore> clone() {
+        return new PendingXP(amount);
+    }
+}
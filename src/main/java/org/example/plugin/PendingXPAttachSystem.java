@@ -0,0 +1,52 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.component.AddReason;
+import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.RemoveReason;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.query.Query;
+import com.hypixel.hytale.component.system.RefSystem;
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+import javax.annotation.Nonnull;
+
+/**
+ * ECS System that gives every player entity its {@link PendingXP} as it is added
+ * to the world, so {@link MiningXPSystem} always finds one to add to. Attaching it
+ * from the break event instead would queue a second add for a player who breaks two
+ * blocks before the command buffer is applied. When the entity is removed, XP still
+ * pending from its last tick is granted instead of going with it.
+ */
+public class PendingXPAttachSystem extends RefSystem<EntityStore> {
+
+    @Override
+    @Nonnull
+    public Query<EntityStore> getQuery() {
+        return Query.and(Player.getComponentType(), PlayerRef.getComponentType());
+    }
+
+    @Override
+    public void onEntityAdded(@Nonnull Ref<EntityStore> ref, @Nonnull AddReason reason,
+                              @Nonnull Store<EntityStore> store, @Nonnull CommandBuffer<EntityStore> commandBuffer) {
+        if (store.getComponent(ref, PendingXP.getComponentType()) == null) {
+            commandBuffer.addComponent(ref, PendingXP.getComponentType(), new PendingXP());
+        }
+    }
+
+    @Override
+    public void onEntityRemove(@Nonnull Ref<EntityStore> ref, @Nonnull RemoveReason reason,
+                               @Nonnull Store<EntityStore> store, @Nonnull CommandBuffer<EntityStore> commandBuffer) {
+        // Breaks in the tick the entity leaves haven't been applied by PendingXPSystem
+        PendingXP pending = store.getComponent(ref, PendingXP.getComponentType());
+        if (pending == null || pending.isEmpty()) {
+            return;
+        }
+        PlayerRef playerRef = store.getComponent(ref, PlayerRef.getComponentType());
+        if (playerRef != null) {
+            ExperienceManager.getInstance().giveExperience(playerRef.getUuid(), pending.drain());
+        }
+    }
+}
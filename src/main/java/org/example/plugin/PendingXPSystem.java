@@ -0,0 +1,40 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.component.ArchetypeChunk;
+import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.query.Query;
+import com.hypixel.hytale.component.system.tick.EntityTickingSystem;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+import javax.annotation.Nonnull;
+
+/**
+ * ECS System that applies each player's {@link PendingXP} once per tick.
+ * However many blocks a player breaks in a tick, their XP state and HUD are
+ * updated once.
+ */
+public class PendingXPSystem extends EntityTickingSystem<EntityStore> {
+
+    @Override
+    public Query<EntityStore> getQuery() {
+        return Query.and(PlayerRef.getComponentType(), PendingXP.getComponentType());
+    }
+
+    @Override
+    public void tick(float dt, int index, @Nonnull ArchetypeChunk<EntityStore> archetypeChunk,
+                     @Nonnull Store<EntityStore> store, @Nonnull CommandBuffer<EntityStore> commandBuffer) {
+        PendingXP pending = archetypeChunk.getComponent(index, PendingXP.getComponentType());
+        if (pending == null || pending.isEmpty()) {
+            return; // Nothing earned this tick
+        }
+
+        PlayerRef playerRef = archetypeChunk.getComponent(index, PlayerRef.getComponentType());
+        if (playerRef == null) {
+            return;
+        }
+
+        ExperienceManager.getInstance().giveExperience(playerRef.getUuid(), pending.drain());
+    }
+}
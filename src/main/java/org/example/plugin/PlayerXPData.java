@@ -17,23 +17,23 @@ public class PlayerXPData {
             .addField(new KeyedCodec<>("Level", Codec.INTEGER), 
                 (data, value) -> data.level = value, 
                 data -> data.level)
-            .addField(new KeyedCodec<>("CurrentXP", Codec.INTEGER), 
+            .addField(new KeyedCodec<>("CurrentXP", Codec.LONG), 
                 (data, value) -> data.currentXP = value, 
                 data -> data.currentXP)
-            .addField(new KeyedCodec<>("XPToNextLevel", Codec.INTEGER), 
+            .addField(new KeyedCodec<>("XPToNextLevel", Codec.LONG), 
                 (data, value) -> data.xpToNextLevel = value, 
                 data -> data.xpToNextLevel)
             .build();
 
     private int level = 1;
-    private int currentXP = 0;
-    private int xpToNextLevel = 100;
+    private long currentXP = 0;
+    private long xpToNextLevel = 100;
 
     public PlayerXPData() {
         // Default constructor for codec
     }
 
-    public PlayerXPData(int level, int currentXP, int xpToNextLevel) {
+    public PlayerXPData(int level, long currentXP, long xpToNextLevel) {
         this.level = level;
         this.currentXP = currentXP;
         this.xpToNextLevel = xpToNextLevel;
@@ -47,36 +47,33 @@ public class PlayerXPData {
         this.level = level;
     }
 
-    public int getCurrentXP() {
+    public long getCurrentXP() {
         return currentXP;
     }
 
-    public void setCurrentXP(int currentXP) {
+    public void setCurrentXP(long currentXP) {
         this.currentXP = currentXP;
     }
 
-    public int getXpToNextLevel() {
+    public long getXpToNextLevel() {
         return xpToNextLevel;
     }
 
-    public void setXpToNextLevel(int xpToNextLevel) {
+    public void setXpToNextLevel(long xpToNextLevel) {
         this.xpToNextLevel = xpToNextLevel;
     }
 
-    /**
-     * Calculates the XP required for a given level.
-     */
-    public static int calculateXPForLevel(int level) {
-        return 100 * level;
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PlayerXPData)) return false;
+        PlayerXPData other = (PlayerXPData) o;
+        return level == other.level && currentXP == other.currentXP && xpToNextLevel == other.xpToNextLevel;
     }
 
-    /**
-     * Resets the XP data to defaults.
-     */
-    public void reset() {
-        this.level = 1;
-        this.currentXP = 0;
-        this.xpToNextLevel = 100;
+    @Override
+    public int hashCode() {
+        return 31 * (31 * level + Long.hashCode(currentXP)) + Long.hashCode(xpToNextLevel);
     }
 
     @Override
@@ -0,0 +1,133 @@
+package org.example.plugin;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live XP state of an online player, safe to update from any thread.
+ *
+ * The whole state is one long: the player's lifetime XP total. Level,
+ * progress into the level and XP to the next level are all derived from it
+ * through the {@link LevelCurve}, so there is no multi-field state to tear.
+ * Grants are a CAS on that long, never a lock, and concurrent grants from
+ * world threads and commands cannot lose each other's updates. Every read
+ * derives a whole record from a single load, so readers always see a
+ * consistent level and progress.
+ */
+public final class PlayerXPState {
+
+    private final AtomicLong totalXP;
+    private final LevelCurve curve;
+
+    public PlayerXPState(@Nonnull LevelCurve curve, long totalXP) {
+        this.curve = curve;
+        this.totalXP = new AtomicLong(Math.max(0, totalXP));
+    }
+
+    /**
+     * State for a stored record, re-fitted to {@code curve}.
+     */
+    @Nonnull
+    public static PlayerXPState of(@Nonnull LevelCurve curve, @Nonnull PlayerXPData data) {
+        return new PlayerXPState(curve, totalOf(curve, data));
+    }
+
+    /**
+     * Lifetime XP total of a stored record under {@code curve}.
+     */
+    static long totalOf(@Nonnull LevelCurve curve, @Nonnull PlayerXPData data) {
+        return LevelCurve.addSaturated(curve.totalXPForLevel(data.getLevel()), Math.max(0, data.getCurrentXP()));
+    }
+
+    /**
+     * Adds XP (or removes it, if negative). The change is read off the same CAS that
+     * applied it, so a concurrent grant never shows up in it.
+     */
+    @Nonnull
+    public Change add(long amount) {
+        long previous = totalXP.getAndAccumulate(amount, PlayerXPState::clampedAdd);
+        return new Change(curve, previous, clampedAdd(previous, amount), true);
+    }
+
+    /**
+     * Moves the player to the start of {@code level}.
+     */
+    @Nonnull
+    public Change setLevel(int level) {
+        long current = curve.totalXPForLevel(level);
+        return new Change(curve, totalXP.getAndSet(current), current, false);
+    }
+
+    public void reset() {
+        totalXP.set(0);
+    }
+
+    public long getTotalXP() {
+        return totalXP.get();
+    }
+
+    public int getLevel() {
+        return curve.levelForTotalXP(totalXP.get());
+    }
+
+    /**
+     * A consistent record of the current state, for display and persistence.
+     */
+    @Nonnull
+    public PlayerXPData snapshot() {
+        return curve.resolve(1, totalXP.get());
+    }
+
+    /**
+     * What one update did: the total XP just before and just after it.
+     */
+    public static final class Change {
+        private final long before;
+        private final long after;
+        private final int fromLevel;
+        private final int toLevel;
+        private final boolean grant;
+
+        Change(@Nonnull LevelCurve curve, long before, long after, boolean grant) {
+            this.before = before;
+            this.after = after;
+            this.fromLevel = curve.levelForTotalXP(before);
+            this.toLevel = curve.levelForTotalXP(after);
+            this.grant = grant;
+        }
+
+        /**
+         * XP actually added (negative if removed), after clamping at 0.
+         */
+        public long getAmount() {
+            return after - before;
+        }
+
+        public long getTotalXP() {
+            return after;
+        }
+
+        public int getFromLevel() {
+            return fromLevel;
+        }
+
+        public int getToLevel() {
+            return toLevel;
+        }
+
+        public int getLevelsGained() {
+            return toLevel - fromLevel;
+        }
+
+        /**
+         * Whether this was an XP grant (from {@link #add}) rather than a level being set.
+         */
+        public boolean isGrant() {
+            return grant;
+        }
+    }
+
+    private static long clampedAdd(long total, long amount) {
+        return Math.max(0, LevelCurve.addSaturated(total, amount));
+    }
+}
@@ -3,29 +3,45 @@ package org.example.plugin;
 import com.hypixel.hytale.protocol.GameMode;
 import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.arguments.system.OptionalArg;
+import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
 import com.hypixel.hytale.server.core.command.system.basecommands.CommandBase;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.util.EventTitleUtil;
 
 import javax.annotation.Nonnull;
+import java.util.List;
 import java.util.UUID;
 
 /**
- * Command to reset your XP to level 1.
- * Usage: /resetxp
+ * Command to reset your XP to level 1 or, with permission, that of the players
+ * a selector matches (see {@link XPTargets}).
+ * Usage: /resetxp [target]
  */
 public class ResetXPCommand extends CommandBase {
 
+    @Nonnull
+    private final OptionalArg<String> targetArg = this.withOptionalArg(
+            "target",
+            "Player name or UUID, @a (everyone online), @w (your world) or @w:<world>",
+            ArgTypes.STRING
+    );
+
     public ResetXPCommand() {
-        super("resetxp", "Resets your XP to level 1.");
-        this.setPermissionGroup(GameMode.Adventure); // Anyone can use it
+        super("resetxp", "Resets your XP, or other players', to level 1. Usage: /resetxp [target]");
+        this.setPermissionGroup(GameMode.Adventure); // Anyone can use it; targets need XPTargets.PERMISSION
     }
 
     @Override
     protected void executeSync(@Nonnull CommandContext ctx) {
+        if (targetArg.provided(ctx)) {
+            resetTargets(ctx, targetArg.get(ctx));
+            return;
+        }
+
         if (!ctx.isPlayer()) {
-            ctx.sendMessage(Message.raw("This command can only be used by players."));
+            ctx.sendMessage(Message.raw("Pick a target when using this command from the console."));
             return;
         }
 
@@ -35,23 +51,40 @@ public class ResetXPCommand extends CommandBase {
 
         ExperienceManager xpManager = ExperienceManager.getInstance();
         ExperienceBarHud xpBar = xpManager.getXPBar(playerId);
-        
+
         if (xpBar == null) {
             ctx.sendMessage(Message.raw("XP Bar not initialized. Please rejoin the server."));
             return;
         }
 
-        int oldLevel = xpBar.getLevel();
-        
+        int oldLevel = xpBar.getState().getLevel();
+
         // Reset their XP
         xpManager.resetExperience(playerId);
-        
+
         ctx.sendMessage(Message.raw("Your XP has been reset! (Was level " + oldLevel + ", now level 1)"));
-        
+
         // Show a title notification
+        showResetTitle(playerRef);
+    }
+
+    private void resetTargets(@Nonnull CommandContext ctx, @Nonnull String selector) {
+        List<Player> targets = XPTargets.resolve(ctx, selector);
+        if (targets == null) {
+            return;
+        }
+
+        ExperienceManager xpManager = ExperienceManager.getInstance();
+        XPTargets.forEach(targets, target -> {
+            PlayerRef playerRef = target.getPlayerRef();
+            xpManager.resetExperience(playerRef.getUuid());
+            showResetTitle(playerRef);
+        }).thenAccept(count -> ctx.sendMessage(Message.raw("Reset the XP of " + count + " players to level 1.")));
+    }
+
+    private static void showResetTitle(@Nonnull PlayerRef playerRef) {
         Message title = Message.raw("XP Reset");
         Message subtitle = Message.raw("Back to level 1");
         EventTitleUtil.showEventTitleToPlayer(playerRef, title, subtitle, false);
     }
 }
-
@@ -0,0 +1,360 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Stores records in an embedded SQLite database (xp_data.db).
+ *
+ * Each player is one row keyed by the two halves of their UUID, so lookups
+ * and ordered scans use the primary key index, and SQLite's signed integer
+ * order matches {@link UUID#compareTo}. Upserts are batched prepared
+ * statements in one transaction and settle as soon as it commits.
+ *
+ * Every statement runs on the store's own I/O threads, each borrowing a
+ * connection from a small pool, so callers never share a connection and
+ * JDBC work stays off the server's threads. The database is opened in WAL
+ * mode, so readers are not blocked while a batch is being written.
+ *
+ * The driver (org.xerial:sqlite-jdbc) is looked up at runtime; without it
+ * {@link #open} fails and the manager falls back to the binary store.
+ */
+public class SqliteXPStore implements XPStore {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final XPMetrics METRICS = XPMetrics.get();
+    private static final String DRIVER = "org.sqlite.JDBC";
+
+    // Rows per executeBatch call within an upsert transaction
+    private static final int UPSERT_BATCH_SIZE = 512;
+
+    // Rows fetched per round trip while scanning
+    private static final int FETCH_SIZE = 1024;
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS xp ("
+            + "msb INTEGER NOT NULL, lsb INTEGER NOT NULL, "
+            + "level INTEGER NOT NULL, current_xp INTEGER NOT NULL, xp_to_next_level INTEGER NOT NULL, "
+            + "PRIMARY KEY (msb, lsb)) WITHOUT ROWID";
+    private static final String SELECT_ONE = "SELECT level, current_xp, xp_to_next_level FROM xp WHERE msb = ? AND lsb = ?";
+    private static final String SELECT_FIRST = "SELECT msb, lsb, level, current_xp, xp_to_next_level FROM xp "
+            + "ORDER BY msb, lsb LIMIT ?";
+    private static final String SELECT_AFTER = "SELECT msb, lsb, level, current_xp, xp_to_next_level FROM xp "
+            + "WHERE (msb, lsb) > (?, ?) ORDER BY msb, lsb LIMIT ?";
+    private static final String SELECT_ALL = "SELECT msb, lsb, level, current_xp, xp_to_next_level FROM xp";
+    private static final String COUNT = "SELECT COUNT(*) FROM xp";
+    private static final String UPSERT = "INSERT INTO xp (msb, lsb, level, current_xp, xp_to_next_level) "
+            + "VALUES (?, ?, ?, ?, ?) ON CONFLICT (msb, lsb) DO UPDATE SET "
+            + "level = excluded.level, current_xp = excluded.current_xp, xp_to_next_level = excluded.xp_to_next_level";
+
+    private final Path file;
+    private final String url;
+    private final int poolSize;
+
+    // Connections not currently borrowed by a task; one per I/O thread
+    private final BlockingQueue<Connection> pool;
+
+    private final ExecutorService executor;
+
+    private volatile Listener listener = records -> { };
+
+    public SqliteXPStore(@Nonnull Path dir, int poolSize) {
+        this.file = dir.resolve("xp_data.db");
+        this.url = "jdbc:sqlite:" + file.toAbsolutePath();
+        this.poolSize = Math.max(1, poolSize);
+        this.pool = new ArrayBlockingQueue<>(this.poolSize);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "ExamplePlugin-XPStore-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @FunctionalInterface
+    private interface SqlTask<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Runs {@code task} on an I/O thread with a pooled connection and waits for the result.
+     */
+    private <T> T call(@Nonnull SqlTask<T> task) throws IOException {
+        Future<T> future = executor.submit(() -> {
+            Connection connection = pool.take();
+            try {
+                return task.run(connection);
+            } finally {
+                pool.put(connection);
+            }
+        });
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for the XP database", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException io ? io : new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public String name() {
+        return "sqlite";
+    }
+
+    @Override
+    public long lastModified() {
+        long newest = 0;
+        for (Path part : new Path[]{file, file.resolveSibling(file.getFileName() + "-wal")}) {
+            try {
+                if (Files.exists(part)) {
+                    newest = Math.max(newest, Files.getLastModifiedTime(part).toMillis());
+                }
+            } catch (IOException e) {
+                // Treated as never written
+            }
+        }
+        return newest;
+    }
+
+    @Override
+    public void open(@Nonnull Listener listener, @Nonnull BiConsumer<UUID, PlayerXPData> unsettled,
+                     @Nonnull Executor parallel) throws IOException {
+        this.listener = listener;
+        long start = System.nanoTime();
+        try {
+            Class.forName(DRIVER);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("SQLite JDBC driver (" + DRIVER + ") is not on the classpath");
+        }
+        Files.createDirectories(file.getParent());
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                Connection connection = DriverManager.getConnection(url);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("PRAGMA busy_timeout = 5000");
+                    if (i == 0) {
+                        statement.execute("PRAGMA journal_mode = WAL");
+                        statement.execute(CREATE_TABLE);
+                    }
+                    // With WAL, a power loss can only drop the last commits, never corrupt the file
+                    statement.execute("PRAGMA synchronous = NORMAL");
+                }
+                pool.add(connection);
+            }
+        } catch (SQLException e) {
+            closeConnections();
+            throw new IOException("Failed to open " + file.getFileName() + ": " + e.getMessage(), e);
+        }
+        METRICS.dataLoad.recordSince(start);
+        LOGGER.atInfo().log("Opened XP database " + file.getFileName() + " with " + size() + " players.");
+    }
+
+    @Nullable
+    @Override
+    public PlayerXPData load(@Nonnull UUID playerId) throws IOException {
+        return call(connection -> {
+            try (PreparedStatement select = connection.prepareStatement(SELECT_ONE)) {
+                return selectOne(select, playerId);
+            }
+        });
+    }
+
+    /**
+     * One prepared statement reused for every player, inside a single read transaction.
+     */
+    @Nonnull
+    @Override
+    public Map<UUID, PlayerXPData> loadBatch(@Nonnull Collection<UUID> playerIds) throws IOException {
+        return call(connection -> {
+            Map<UUID, PlayerXPData> records = new HashMap<>();
+            connection.setAutoCommit(false);
+            try (PreparedStatement select = connection.prepareStatement(SELECT_ONE)) {
+                for (UUID playerId : playerIds) {
+                    PlayerXPData data = selectOne(select, playerId);
+                    if (data != null) {
+                        records.put(playerId, data);
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            return records;
+        });
+    }
+
+    @Nullable
+    private static PlayerXPData selectOne(PreparedStatement select, UUID playerId) throws SQLException {
+        select.setLong(1, playerId.getMostSignificantBits());
+        select.setLong(2, playerId.getLeastSignificantBits());
+        try (ResultSet row = select.executeQuery()) {
+            return row.next() ? new PlayerXPData(row.getInt(1), row.getLong(2), row.getLong(3)) : null;
+        }
+    }
+
+    @Override
+    public void upsertBatch(@Nonnull Map<UUID, PlayerXPData> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        call(connection -> {
+            connection.setAutoCommit(false);
+            try (PreparedStatement upsert = connection.prepareStatement(UPSERT)) {
+                int pending = 0;
+                for (Map.Entry<UUID, PlayerXPData> entry : records.entrySet()) {
+                    PlayerXPData data = entry.getValue();
+                    upsert.setLong(1, entry.getKey().getMostSignificantBits());
+                    upsert.setLong(2, entry.getKey().getLeastSignificantBits());
+                    upsert.setInt(3, data.getLevel());
+                    upsert.setLong(4, data.getCurrentXP());
+                    upsert.setLong(5, data.getXpToNextLevel());
+                    upsert.addBatch();
+                    if (++pending == UPSERT_BATCH_SIZE) {
+                        upsert.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    upsert.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            return null;
+        });
+        listener.settled(records);
+    }
+
+    @Override
+    public void forEachAfter(@Nullable UUID after, int limit, @Nonnull BiConsumer<UUID, PlayerXPData> consumer) throws IOException {
+        // Collected on the I/O thread, handed over on the caller's
+        List<Map.Entry<UUID, PlayerXPData>> rows = call(connection -> {
+            try (PreparedStatement select = connection.prepareStatement(after != null ? SELECT_AFTER : SELECT_FIRST)) {
+                int index = 1;
+                if (after != null) {
+                    select.setLong(index++, after.getMostSignificantBits());
+                    select.setLong(index++, after.getLeastSignificantBits());
+                }
+                select.setInt(index, limit);
+                List<Map.Entry<UUID, PlayerXPData>> batch = new ArrayList<>(Math.min(limit, FETCH_SIZE));
+                try (ResultSet row = select.executeQuery()) {
+                    while (row.next()) {
+                        batch.add(Map.entry(new UUID(row.getLong(1), row.getLong(2)),
+                                new PlayerXPData(row.getInt(3), row.getLong(4), row.getLong(5))));
+                    }
+                }
+                return batch;
+            }
+        });
+        for (Map.Entry<UUID, PlayerXPData> entry : rows) {
+            consumer.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Streams the whole table in one query, calling {@code consumer} on the I/O thread.
+     */
+    @Override
+    public void forEach(@Nonnull BiConsumer<UUID, PlayerXPData> consumer) throws IOException {
+        call(connection -> {
+            try (PreparedStatement select = connection.prepareStatement(SELECT_ALL)) {
+                select.setFetchSize(FETCH_SIZE);
+                try (ResultSet row = select.executeQuery()) {
+                    while (row.next()) {
+                        consumer.accept(new UUID(row.getLong(1), row.getLong(2)),
+                                new PlayerXPData(row.getInt(3), row.getLong(4), row.getLong(5)));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public int size() throws IOException {
+        return call(connection -> {
+            try (PreparedStatement count = connection.prepareStatement(COUNT);
+                 ResultSet row = count.executeQuery()) {
+                return row.next() ? row.getInt(1) : 0;
+            }
+        });
+    }
+
+    @Override
+    public long sizeOnDisk() {
+        long total = 0;
+        for (Path part : new Path[]{file, file.resolveSibling(file.getFileName() + "-wal")}) {
+            try {
+                total += Files.exists(part) ? Files.size(part) : 0;
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Waits for running statements, then closes the connections; the last one to close
+     * checkpoints the WAL back into the database file.
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.atWarning().log("XP database still busy after " + SHUTDOWN_TIMEOUT_SECONDS + "s; closing anyway.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeConnections();
+    }
+
+    private void closeConnections() {
+        Connection connection;
+        while ((connection = pool.poll()) != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOGGER.atWarning().log("Failed to close XP database connection: " + e.getMessage());
+            }
+        }
+    }
+}
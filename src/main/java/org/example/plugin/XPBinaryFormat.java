@@ -0,0 +1,222 @@
+package org.example.plugin;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+/**
+ * Compact binary snapshot format for XP data.
+ *
+ * Records use the same fields as {@link PlayerXPData#CODEC} (Level, CurrentXP,
+ * XPToNextLevel) but at fixed width, with the UUID stored as two longs
+ * instead of a 36-char string. Records are sorted by UUID, which lets
+ * {@link XPSnapshotReader} find a single player with a binary search.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * header:  magic "XPDB" (4), version (2), flags (2), record count (4), records per block (4), block count (4)
+ * flat:    record * count                                     (flags bit 0 clear)
+ * blocks:  index entry * block count, then deflated blocks     (flags bit 0 set)
+ *          index entry = first msb (8), first lsb (8), offset (8), compressed length (4), record count (4)
+ * record:  msb (8), lsb (8), level (4), currentXP (8), xpToNextLevel (8)
+ * </pre>
+ * Version 1 files stored currentXP and xpToNextLevel as 4-byte ints; they are
+ * still readable and are rewritten as version 2 on the next compaction.
+ */
+public final class XPBinaryFormat {
+
+    static final int MAGIC = 0x58504442; // "XPDB"
+    static final short VERSION = 2;
+    static final short VERSION_INT_XP = 1;
+    static final short FLAG_COMPRESSED = 1;
+    static final int HEADER_SIZE = 20;
+    static final int RECORD_SIZE = 36;
+    static final int RECORD_SIZE_INT_XP = 28;
+    static final int INDEX_ENTRY_SIZE = 32;
+    static final int RECORDS_PER_BLOCK = 1024;
+
+    private XPBinaryFormat() {
+    }
+
+    /**
+     * Writes a whole map as a snapshot, replacing {@code file} atomically.
+     */
+    public static void write(@Nonnull Path file, @Nonnull Map<UUID, PlayerXPData> data, boolean compress) throws IOException {
+        List<Map.Entry<UUID, PlayerXPData>> sorted = new ArrayList<>(data.entrySet());
+        sorted.sort(Map.Entry.comparingByKey());
+
+        try (Writer writer = new Writer(file, sorted.size(), compress)) {
+            for (Map.Entry<UUID, PlayerXPData> entry : sorted) {
+                writer.add(entry.getKey(), entry.getValue());
+            }
+            writer.commit();
+        }
+    }
+
+    /**
+     * Streams records into a new snapshot. Records must be added in ascending UUID order
+     * and the total count must be known up front. Output goes to a temp file that
+     * {@link #commit()} moves over the target; closing without committing discards it.
+     */
+    public static final class Writer implements Closeable {
+
+        private final Path file;
+        private final Path temp;
+        private final FileChannel channel;
+        private final int count;
+        private final boolean compress;
+        private final ByteBuffer buffer;
+
+        // Compressed mode state
+        private final ByteBuffer index;
+        private final Deflater deflater;
+        private byte[] scratch;
+        private int blockRecords;
+        private long blockOffset;
+        private UUID blockFirst;
+
+        private int written;
+        private UUID last;
+        private boolean committed;
+
+        public Writer(@Nonnull Path file, int count, boolean compress) throws IOException {
+            this.file = file;
+            this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.count = count;
+            this.compress = compress;
+
+            int blockCount = compress ? (count + RECORDS_PER_BLOCK - 1) / RECORDS_PER_BLOCK : 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putShort(VERSION);
+            header.putShort(compress ? FLAG_COMPRESSED : 0);
+            header.putInt(count);
+            header.putInt(RECORDS_PER_BLOCK);
+            header.putInt(blockCount);
+            header.flip();
+            writeFully(header, 0);
+
+            if (compress) {
+                this.buffer = ByteBuffer.allocate(RECORDS_PER_BLOCK * RECORD_SIZE);
+                this.index = ByteBuffer.allocate(blockCount * INDEX_ENTRY_SIZE);
+                this.deflater = new Deflater(Deflater.BEST_SPEED);
+                this.scratch = new byte[buffer.capacity() + 64];
+                this.blockOffset = HEADER_SIZE + (long) blockCount * INDEX_ENTRY_SIZE;
+            } else {
+                this.buffer = ByteBuffer.allocate(2048 * RECORD_SIZE);
+                this.index = null;
+                this.deflater = null;
+            }
+        }
+
+        public void add(@Nonnull UUID playerId, @Nonnull PlayerXPData data) throws IOException {
+            if (written == count) {
+                throw new IllegalStateException("More records than the declared count of " + count);
+            }
+            if (last != null && last.compareTo(playerId) >= 0) {
+                throw new IllegalStateException("Records must be added in ascending UUID order");
+            }
+            last = playerId;
+            written++;
+
+            if (compress && blockRecords == 0) {
+                blockFirst = playerId;
+            }
+            buffer.putLong(playerId.getMostSignificantBits());
+            buffer.putLong(playerId.getLeastSignificantBits());
+            buffer.putInt(data.getLevel());
+            buffer.putLong(data.getCurrentXP());
+            buffer.putLong(data.getXpToNextLevel());
+
+            if (compress) {
+                if (++blockRecords == RECORDS_PER_BLOCK) {
+                    flushBlock();
+                }
+            } else if (!buffer.hasRemaining()) {
+                flushFlat();
+            }
+        }
+
+        private void flushFlat() throws IOException {
+            buffer.flip();
+            writeFully(buffer, channel.size());
+            buffer.clear();
+        }
+
+        private void flushBlock() throws IOException {
+            deflater.reset();
+            deflater.setInput(buffer.array(), 0, buffer.position());
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == scratch.length) {
+                    scratch = Arrays.copyOf(scratch, scratch.length * 2);
+                }
+                length += deflater.deflate(scratch, length, scratch.length - length);
+            }
+            writeFully(ByteBuffer.wrap(scratch, 0, length), blockOffset);
+
+            index.putLong(blockFirst.getMostSignificantBits());
+            index.putLong(blockFirst.getLeastSignificantBits());
+            index.putLong(blockOffset);
+            index.putInt(length);
+            index.putInt(blockRecords);
+            blockOffset += length;
+            blockRecords = 0;
+            buffer.clear();
+        }
+
+        /**
+         * Finishes the file, forces it to disk and atomically replaces the target.
+         */
+        public void commit() throws IOException {
+            if (written != count) {
+                throw new IllegalStateException("Wrote " + written + " records but declared " + count);
+            }
+            if (compress) {
+                if (blockRecords > 0) {
+                    flushBlock();
+                }
+                index.flip();
+                writeFully(index, HEADER_SIZE);
+            } else if (buffer.position() > 0) {
+                flushFlat();
+            }
+            channel.force(true);
+            channel.close();
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        private void writeFully(ByteBuffer source, long position) throws IOException {
+            while (source.hasRemaining()) {
+                position += channel.write(source, position);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (deflater != null) {
+                deflater.end();
+            }
+            if (!committed) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Applies one XP change to every stored player, online or offline.
+ *
+ * The store is walked in UUID order, one batch at a time, resuming from
+ * the last key so records settling mid-run are neither skipped nor repeated.
+ * Pending records and online players that are not settled in the store yet
+ * are handled in a final pass. Each batch is written before the next one is
+ * read, and the store is made to settle whenever too many changed records
+ * are waiting in memory, so memory stays bounded by the batch size rather
+ * than by the number of players.
+ */
+public class XPBulkUpdate implements Callable<XPBulkUpdate.Result> {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    static final int BATCH_SIZE = 1024;
+    private static final long PROGRESS_INTERVAL_MS = 5000;
+
+    private final ExperienceManager manager;
+    @Nullable
+    private final BiPredicate<UUID, PlayerXPData> filter;
+    private final Function<PlayerXPState, PlayerXPState.Change> update;
+    private final Consumer<String> progress;
+
+    private long scanned;
+    private long updated;
+
+    public XPBulkUpdate(@Nonnull ExperienceManager manager, @Nullable BiPredicate<UUID, PlayerXPData> filter,
+                        @Nonnull Function<PlayerXPState, PlayerXPState.Change> update, @Nonnull Consumer<String> progress) {
+        this.manager = manager;
+        this.filter = filter;
+        this.update = update;
+        this.progress = progress;
+    }
+
+    @Override
+    public Result call() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        long lastReport = start;
+
+        // Taken up front: players who only exist in memory, ticked off as the store pass meets them
+        Set<UUID> remaining = new HashSet<>(manager.unsettledPlayers());
+        long estimate = manager.storedSize() + remaining.size();
+
+        List<UUID> ids = new ArrayList<>(BATCH_SIZE);
+        List<PlayerXPData> records = new ArrayList<>(BATCH_SIZE);
+        UUID cursor = null;
+        while (true) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Bulk XP update cancelled after " + scanned + " players");
+            }
+            ids.clear();
+            records.clear();
+            long generation = manager.readStoredBatch(cursor, BATCH_SIZE, ids, records);
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                remaining.remove(ids.get(i));
+                apply(ids.get(i), records.get(i), generation);
+            }
+            cursor = ids.get(ids.size() - 1);
+            manager.flushBulkBatch();
+
+            long now = System.nanoTime();
+            if (now - lastReport >= TimeUnit.MILLISECONDS.toNanos(PROGRESS_INTERVAL_MS)) {
+                lastReport = now;
+                report(String.format(Locale.ROOT, "Bulk XP update: %d/~%d players scanned, %d updated (%.0f players/s)",
+                        scanned, estimate, updated, rate(scanned, now - start)));
+            }
+        }
+
+        for (UUID playerId : remaining) {
+            apply(playerId, null, 0);
+        }
+        manager.flushBulkBatch();
+
+        Result result = new Result(scanned, updated, System.nanoTime() - start);
+        report(result.toString());
+        return result;
+    }
+
+    private void apply(UUID playerId, @Nullable PlayerXPData hint, long generation) throws IOException {
+        scanned++;
+        if (manager.updatePlayer(playerId, hint, generation, filter, update, false) >= 0) {
+            updated++;
+        }
+    }
+
+    private void report(String message) {
+        LOGGER.atInfo().log(message);
+        try {
+            progress.accept(message);
+        } catch (RuntimeException e) {
+            LOGGER.atWarning().log("Failed to report bulk XP progress: " + e.getMessage());
+        }
+    }
+
+    private static double rate(long players, long nanos) {
+        return nanos == 0 ? 0 : players * 1e9 / nanos;
+    }
+
+    /**
+     * Outcome of a finished bulk update.
+     */
+    public static final class Result {
+        private final long scanned;
+        private final long updated;
+        private final long elapsedNanos;
+
+        Result(long scanned, long updated, long elapsedNanos) {
+            this.scanned = scanned;
+            this.updated = updated;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getScanned() {
+            return scanned;
+        }
+
+        public long getUpdated() {
+            return updated;
+        }
+
+        public long getElapsedMs() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+
+        /**
+         * Players scanned per second.
+         */
+        public double getThroughput() {
+            return rate(scanned, elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "Bulk XP update done: %d of %d players updated in %dms (%.0f players/s)",
+                    updated, scanned, getElapsedMs(), getThroughput());
+        }
+    }
+}
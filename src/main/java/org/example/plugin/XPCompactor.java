@@ -0,0 +1,188 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+/**
+ * Folds sealed journal segments into a new snapshot on its own thread.
+ *
+ * The new snapshot is a streaming merge of the previous snapshot with the
+ * sealed segments only, never built from live state. That keeps a crash
+ * between writing the snapshot and deleting the segments harmless:
+ * replaying them again on startup produces the same result.
+ */
+public class XPCompactor {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final XPMetrics METRICS = XPMetrics.get();
+    private static final long SHUTDOWN_TIMEOUT_MS = 30_000;
+
+    private final BinaryXPStore store;
+    private final XPJournal journal;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ExamplePlugin-XPCompactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Set while a compaction is queued, so repeated requests collapse into one
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+
+    public XPCompactor(@Nonnull BinaryXPStore store, @Nonnull XPJournal journal) {
+        this.store = store;
+        this.journal = journal;
+    }
+
+    /**
+     * Queues a compaction unless one is already waiting to run.
+     */
+    public void request() {
+        if (pending.compareAndSet(false, true)) {
+            executor.execute(this::compact);
+        }
+    }
+
+    /**
+     * Runs a compaction now and waits for it, after any already queued.
+     */
+    public void compactAndWait() throws InterruptedException {
+        try {
+            executor.submit(this::compact).get();
+        } catch (ExecutionException e) {
+            LOGGER.atWarning().log("XP journal compaction failed: " + e.getCause());
+        }
+    }
+
+    private void compact() {
+        pending.set(false);
+        try {
+            List<Path> sealed = journal.sealedSegments();
+            if (sealed.isEmpty()) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            TreeMap<UUID, PlayerXPData> changes = new TreeMap<>();
+            int replayed = 0;
+            for (Path segment : sealed) {
+                replayed += XPJournal.replay(segment, changes::put);
+            }
+            if (!changes.isEmpty()) {
+                merge(changes);
+            }
+
+            for (Path segment : sealed) {
+                Files.deleteIfExists(segment);
+            }
+            store.compacted(changes);
+            METRICS.compaction.recordSince(start);
+            LOGGER.atInfo().log("Compacted " + replayed + " journal records from " + sealed.size()
+                    + " segment(s) in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms.");
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.atWarning().log("XP journal compaction failed, will retry later: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the current snapshot and the sorted changes into a new snapshot,
+     * so only the journal contents are ever held in memory.
+     */
+    private void merge(TreeMap<UUID, PlayerXPData> changes) throws IOException {
+        XPSnapshotReader current = store.snapshotReader();
+
+        // First pass only counts overlaps, because the writer needs the final record count up front
+        int[] overlap = {0};
+        current.forEach((playerId, data) -> {
+            if (changes.containsKey(playerId)) {
+                overlap[0]++;
+            }
+        });
+        int total = current.size() + changes.size() - overlap[0];
+
+        try (XPBinaryFormat.Writer writer = new XPBinaryFormat.Writer(store.dataFile(), total, store.isCompressSnapshots())) {
+            Merger merger = new Merger(writer, changes);
+            current.forEach(merger);
+            merger.finish();
+            store.installSnapshot(writer);
+        }
+    }
+
+    /**
+     * Interleaves sorted journal changes into the sorted snapshot stream; a change replaces
+     * the snapshot record with the same UUID.
+     */
+    private static final class Merger implements BiConsumer<UUID, PlayerXPData> {
+
+        private final XPBinaryFormat.Writer writer;
+        private final Iterator<Map.Entry<UUID, PlayerXPData>> changes;
+        @Nullable
+        private Map.Entry<UUID, PlayerXPData> next;
+
+        Merger(XPBinaryFormat.Writer writer, TreeMap<UUID, PlayerXPData> changes) {
+            this.writer = writer;
+            this.changes = changes.entrySet().iterator();
+            advance();
+        }
+
+        @Override
+        public void accept(UUID playerId, PlayerXPData data) {
+            try {
+                while (next != null && next.getKey().compareTo(playerId) < 0) {
+                    writer.add(next.getKey(), next.getValue());
+                    advance();
+                }
+                if (next != null && next.getKey().equals(playerId)) {
+                    writer.add(playerId, next.getValue());
+                    advance();
+                } else {
+                    writer.add(playerId, data);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            while (next != null) {
+                writer.add(next.getKey(), next.getValue());
+                advance();
+            }
+        }
+
+        private void advance() {
+            next = changes.hasNext() ? changes.next() : null;
+        }
+    }
+
+    /**
+     * Runs a final compaction and waits for it before stopping the thread.
+     */
+    public void shutdown() {
+        try {
+            executor.submit(this::compact).get(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            LOGGER.atWarning().log("Final XP compaction did not complete: " + e.getMessage());
+        }
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.plugin;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Operator-tunable settings for the XP system.
+ * Loaded from plugins/ExamplePlugin/config.json; missing keys keep their defaults.
+ */
+public class XPConfig {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    // Where XP records are kept: "binary" (snapshot + journal), "json" (xp_data.json, for small
+    // servers) or "sqlite" (xp_data.db, needs the SQLite JDBC driver). Switching imports the old data.
+    private String storage = "binary";
+
+    // Connections (and I/O threads) used by the sqlite store
+    private int sqliteConnections = 4;
+
+    // Offline players' records kept in memory. Beyond this, the least recently used ones are
+    // dropped (changed ones are saved first) and read from disk again when needed.
+    private int offlineCacheEntries = 50_000;
+
+    // How often the background writer flushes dirty XP data to disk
+    private long flushIntervalMs = 5000;
+
+    // Journal segment size that triggers folding it into a new snapshot
+    private long journalCompactBytes = 4L * 1024 * 1024;
+
+    // Deflate snapshot blocks; smaller files, but a lookup reads and inflates a whole block
+    // where a flat snapshot reads just the one record
+    private boolean compressSnapshots = false;
+
+    // Minimum time between XP bar updates sent to a player (50ms = one server tick)
+    private long hudUpdateIntervalMs = 50;
+
+    // Level-ups within this long of the first are announced together ("Level 12 -> 17")
+    private long levelUpNotifyWindowMs = 500;
+
+    // Most level-up notifications sent to one player per minute; extra level-ups wait and merge
+    private int maxNotificationsPerMinute = 10;
+
+    // How often mining_rules.json is checked for edits; 0 disables hot reload
+    private long rulesReloadCheckMs = 2000;
+
+    // How often the leaderboard applies XP changes and redraws the HUD panel if the top changed
+    private long leaderboardRefreshMs = 1000;
+
+    // How often a metrics summary is logged; 0 disables it (/xpstats works either way)
+    private long metricsLogIntervalMs = 300_000;
+
+    // XP needed per level: linear (base * level), polynomial (base * level^exponent),
+    // exponential (base * growth^(level - 1)) or table (explicit XP per level)
+    private LevelCurve.Spec levelCurve = new LevelCurve.Spec();
+
+    @Nonnull
+    public String getStorage() {
+        return storage != null ? storage.toLowerCase(Locale.ROOT) : "binary";
+    }
+
+    public int getSqliteConnections() {
+        return Math.max(1, sqliteConnections);
+    }
+
+    public int getOfflineCacheEntries() {
+        return Math.max(1, offlineCacheEntries);
+    }
+
+    public long getFlushIntervalMs() {
+        return Math.max(100, flushIntervalMs);
+    }
+
+    public long getJournalCompactBytes() {
+        return journalCompactBytes;
+    }
+
+    public boolean isCompressSnapshots() {
+        return compressSnapshots;
+    }
+
+    public long getHudUpdateIntervalMs() {
+        return Math.max(1, hudUpdateIntervalMs);
+    }
+
+    public long getLevelUpNotifyWindowMs() {
+        return levelUpNotifyWindowMs;
+    }
+
+    public int getMaxNotificationsPerMinute() {
+        return Math.max(1, maxNotificationsPerMinute);
+    }
+
+    public long getRulesReloadCheckMs() {
+        return rulesReloadCheckMs;
+    }
+
+    public long getMetricsLogIntervalMs() {
+        return metricsLogIntervalMs;
+    }
+
+    public long getLeaderboardRefreshMs() {
+        return Math.max(50, leaderboardRefreshMs);
+    }
+
+    /**
+     * Builds the configured level curve, falling back to the default if it is invalid.
+     */
+    @Nonnull
+    public LevelCurve getLevelCurve() {
+        if (levelCurve == null) {
+            return LevelCurve.DEFAULT;
+        }
+        try {
+            return levelCurve.build();
+        } catch (IllegalArgumentException e) {
+            LOGGER.atWarning().log("Invalid level curve, using the default: " + e.getMessage());
+            return LevelCurve.DEFAULT;
+        }
+    }
+
+    /**
+     * Loads the config file, writing a default one if none exists yet.
+     */
+    @Nonnull
+    public static XPConfig load(@Nonnull Path dataDir) {
+        Path file = dataDir.resolve("config.json");
+        XPConfig config = new XPConfig();
+
+        if (Files.exists(file)) {
+            try {
+                XPConfig loaded = GSON.fromJson(Files.readString(file), XPConfig.class);
+                if (loaded != null) {
+                    config = loaded;
+                }
+            } catch (IOException | JsonParseException e) {
+                LOGGER.atWarning().log("Failed to read config, using defaults: " + e.getMessage());
+                return config;
+            }
+        }
+
+        // Rewrite so newly added keys show up for operators
+        try {
+            Files.createDirectories(dataDir);
+            Files.writeString(file, GSON.toJson(config));
+        } catch (IOException e) {
+            LOGGER.atWarning().log("Failed to write config: " + e.getMessage());
+        }
+        return config;
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.HytaleServer;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * XP events for other plugins: an {@link XPGainEvent} for every XP grant and a
+ * {@link LevelUpEvent} whenever one raises a player's level.
+ *
+ * Listeners either run on the granting thread as each grant happens (often a
+ * world thread, so keep them short), or subscribe batched and get a list once
+ * per tick on a background thread, with each player's grants in that tick merged
+ * into one event. Batched delivery is meant for anything that reacts to mining,
+ * which grants XP every few blocks.
+ *
+ * Publishing checks for listeners before building an event, so with none
+ * registered a grant allocates nothing here.
+ */
+public final class XPEvents {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final XPEvents INSTANCE = new XPEvents();
+
+    // One server tick
+    private static final long BATCH_INTERVAL_MS = 50;
+
+    private final Channel<XPGainEvent> gains = new Channel<>("gain", XPGainEvent::merge);
+    private final Channel<LevelUpEvent> levelUps = new Channel<>("level-up", LevelUpEvent::merge);
+
+    private ScheduledFuture<?> task;
+
+    private XPEvents() {
+    }
+
+    @Nonnull
+    public static XPEvents get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Undoes a subscription.
+     */
+    public interface Subscription {
+        void unsubscribe();
+    }
+
+    @Nonnull
+    public Subscription onXPGain(@Nonnull Consumer<? super XPGainEvent> listener) {
+        return gains.subscribe(gains.immediate, listener);
+    }
+
+    @Nonnull
+    public Subscription onXPGainBatched(@Nonnull Consumer<? super List<XPGainEvent>> listener) {
+        return gains.subscribe(gains.batched, listener);
+    }
+
+    @Nonnull
+    public Subscription onLevelUp(@Nonnull Consumer<? super LevelUpEvent> listener) {
+        return levelUps.subscribe(levelUps.immediate, listener);
+    }
+
+    @Nonnull
+    public Subscription onLevelUpBatched(@Nonnull Consumer<? super List<LevelUpEvent>> listener) {
+        return levelUps.subscribe(levelUps.batched, listener);
+    }
+
+    /**
+     * Publishes a grant of {@code amount} XP that took the player from {@code fromLevel} to
+     * {@code toLevel}, plus a level-up if it raised their level.
+     */
+    void xpGained(@Nonnull UUID playerId, long amount, int fromLevel, int toLevel) {
+        if (!gains.isEmpty()) {
+            gains.publish(playerId, new XPGainEvent(playerId, amount, fromLevel, toLevel));
+        }
+        if (toLevel > fromLevel && !levelUps.isEmpty()) {
+            levelUps.publish(playerId, new LevelUpEvent(playerId, fromLevel, toLevel));
+        }
+    }
+
+    /**
+     * Starts delivering batches on the server's scheduled executor, once per tick.
+     */
+    public synchronized void start() {
+        if (task != null) {
+            return;
+        }
+        task = HytaleServer.SCHEDULED_EXECUTOR.scheduleAtFixedRate(this::flush, BATCH_INTERVAL_MS, BATCH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Delivers everything batched so far. Gains go out before the level-ups of the same tick.
+     */
+    public void flush() {
+        gains.flush();
+        levelUps.flush();
+    }
+
+    /**
+     * Stops the periodic task after delivering whatever is still batched.
+     */
+    public synchronized void shutdown() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        flush();
+    }
+
+    /**
+     * Listeners for one event type, and the per-player events batched for the next tick.
+     */
+    private static final class Channel<E> {
+        private final String name;
+        private final BinaryOperator<E> merge;
+        private final List<Consumer<? super E>> immediate = new CopyOnWriteArrayList<>();
+        private final List<Consumer<? super List<E>>> batched = new CopyOnWriteArrayList<>();
+
+        // Only filled while there are batched listeners
+        private final Map<UUID, E> pending = new ConcurrentHashMap<>();
+
+        Channel(String name, BinaryOperator<E> merge) {
+            this.name = name;
+            this.merge = merge;
+        }
+
+        <L> Subscription subscribe(List<L> listeners, L listener) {
+            listeners.add(listener);
+            return () -> listeners.remove(listener);
+        }
+
+        boolean isEmpty() {
+            return immediate.isEmpty() && batched.isEmpty();
+        }
+
+        void publish(UUID playerId, E event) {
+            for (Consumer<? super E> listener : immediate) {
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    LOGGER.atWarning().log("XP " + name + " listener failed: " + e.getMessage());
+                }
+            }
+            if (!batched.isEmpty()) {
+                pending.merge(playerId, event, merge);
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            // Events merged in after a player is taken out wait for the next tick
+            List<E> batch = new ArrayList<>(pending.size());
+            for (UUID playerId : pending.keySet()) {
+                E event = pending.remove(playerId);
+                if (event != null) {
+                    batch.add(event);
+                }
+            }
+            List<E> view = Collections.unmodifiableList(batch);
+            for (Consumer<? super List<E>> listener : batched) {
+                try {
+                    listener.accept(view);
+                } catch (RuntimeException e) {
+                    LOGGER.atWarning().log("Batched XP " + name + " listener failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.plugin;
+
+import javax.annotation.Nonnull;
+import java.util.UUID;
+
+/**
+ * A player was granted XP. Published by {@link XPEvents} for every grant, online or
+ * offline; batched listeners get one event per player per tick with the grants merged.
+ */
+public final class XPGainEvent {
+
+    private final UUID playerId;
+    private final long amount;
+    private final int fromLevel;
+    private final int toLevel;
+
+    public XPGainEvent(@Nonnull UUID playerId, long amount, int fromLevel, int toLevel) {
+        this.playerId = playerId;
+        this.amount = amount;
+        this.fromLevel = fromLevel;
+        this.toLevel = toLevel;
+    }
+
+    @Nonnull
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * XP granted; negative if XP was taken away.
+     */
+    public long getAmount() {
+        return amount;
+    }
+
+    public int getFromLevel() {
+        return fromLevel;
+    }
+
+    public int getToLevel() {
+        return toLevel;
+    }
+
+    /**
+     * Levels gained (negative if lost).
+     */
+    public int getLevelsGained() {
+        return toLevel - fromLevel;
+    }
+
+    /**
+     * This grant followed by {@code later}, as one.
+     */
+    @Nonnull
+    XPGainEvent merge(@Nonnull XPGainEvent later) {
+        return new XPGainEvent(playerId, LevelCurve.addSaturated(amount, later.amount), fromLevel, later.toLevel);
+    }
+
+    @Override
+    public String toString() {
+        return "XPGainEvent{" + playerId + ", " + amount + " XP, level " + fromLevel + " -> " + toLevel + "}";
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.HytaleServer;
+
+import javax.annotation.Nonnull;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces XP bar updates. HUDs mark themselves dirty when their state
+ * changes, and a periodic task sends each dirty HUD's final state in a single
+ * UI update, so a burst of XP gains within one interval costs one packet per
+ * player instead of one per gain.
+ */
+public class XPHudFlusher {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    // Each HUD appears at most once; its own dirty flag guards re-queueing
+    private final Queue<ExperienceBarHud> dirtyHuds = new ConcurrentLinkedQueue<>();
+
+    private ScheduledFuture<?> task;
+
+    /**
+     * Starts flushing on the server's scheduled executor. One server tick (50ms) is a good default.
+     */
+    public void start(long intervalMs) {
+        if (task != null) {
+            return;
+        }
+        task = HytaleServer.SCHEDULED_EXECUTOR.scheduleAtFixedRate(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a HUD for the next flush. Called by the HUD after it sets its dirty flag.
+     */
+    void enqueue(@Nonnull ExperienceBarHud hud) {
+        dirtyHuds.add(hud);
+    }
+
+    /**
+     * Sends every HUD update pending when the flush starts. A HUD that queues
+     * itself again during the flush (to hide a popup later) waits for the next one.
+     */
+    public void flush() {
+        ExperienceBarHud hud;
+        for (int pending = dirtyHuds.size(); pending > 0 && (hud = dirtyHuds.poll()) != null; pending--) {
+            try {
+                hud.flushPendingUpdate();
+            } catch (RuntimeException e) {
+                LOGGER.atWarning().log("Failed to update XP bar: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic task after sending whatever is still pending.
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        flush();
+    }
+}
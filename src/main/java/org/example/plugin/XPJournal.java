@@ -0,0 +1,293 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of per-player XP records, stored next to the snapshot.
+ *
+ * Each record is the player's full state (not a delta), so replaying a
+ * segment is idempotent and the last record for a UUID wins. The log is
+ * split into numbered segments: new records go to the active segment, and
+ * {@link #rotate()} seals it so the compactor can fold it into the snapshot.
+ *
+ * Segment layout (big-endian): header of magic "XPJL" (4), version (2), reserved (2),
+ * then records of 40 bytes:
+ * UUID msb (8), UUID lsb (8), level (4), currentXP (8), xpToNextLevel (8), CRC32 of the first 36 bytes (4).
+ *
+ * Segments written before XP became 64-bit have no header and 32-byte
+ * records with int XP fields; they are still replayed.
+ */
+public class XPJournal {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final String PREFIX = "xp_journal.";
+    private static final String SUFFIX = ".bin";
+    static final int MAGIC = 0x58504A4C; // "XPJL"
+    static final short VERSION = 2;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_SIZE = 40;
+    static final int RECORD_SIZE_INT_XP = 32;
+
+    private final Path dir;
+    private FileChannel active;
+    private long activeGeneration;
+
+    public XPJournal(@Nonnull Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Opens a fresh active segment numbered after any existing ones.
+     * Existing segments are left in place as sealed segments for recovery and compaction.
+     */
+    public synchronized void open() throws IOException {
+        Files.createDirectories(dir);
+        List<Path> existing = segments();
+        activeGeneration = existing.isEmpty() ? 1 : generationOf(existing.get(existing.size() - 1)) + 1;
+        active = openSegment(activeGeneration);
+    }
+
+    /**
+     * Appends records to the active segment and forces them to disk.
+     */
+    public synchronized void append(@Nonnull Map<UUID, PlayerXPData> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(records.size() * RECORD_SIZE);
+        CRC32 crc = new CRC32();
+        for (Map.Entry<UUID, PlayerXPData> entry : records.entrySet()) {
+            int start = buffer.position();
+            PlayerXPData data = entry.getValue();
+            buffer.putLong(entry.getKey().getMostSignificantBits());
+            buffer.putLong(entry.getKey().getLeastSignificantBits());
+            buffer.putInt(data.getLevel());
+            buffer.putLong(data.getCurrentXP());
+            buffer.putLong(data.getXpToNextLevel());
+            crc.reset();
+            crc.update(buffer.array(), start, RECORD_SIZE - 4);
+            buffer.putInt((int) crc.getValue());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            active.write(buffer);
+        }
+        active.force(false);
+    }
+
+    /**
+     * Size of the active segment in bytes.
+     */
+    public synchronized long activeSize() throws IOException {
+        return active.size();
+    }
+
+    /**
+     * Size of every segment on disk, sealed and active, in bytes.
+     */
+    public long totalSize() throws IOException {
+        long total = 0;
+        for (Path segment : segments()) {
+            total += Files.size(segment);
+        }
+        return total;
+    }
+
+    /**
+     * Modification time of the newest segment in epoch millis, or 0 if there are none.
+     */
+    public long lastModified() throws IOException {
+        List<Path> existing = segments();
+        return existing.isEmpty() ? 0 : Files.getLastModifiedTime(existing.get(existing.size() - 1)).toMillis();
+    }
+
+    /**
+     * Seals the active segment and starts a new one. Sealed segments are
+     * returned by {@link #sealedSegments()} until the compactor deletes them.
+     */
+    public synchronized void rotate() throws IOException {
+        if (active == null || active.size() <= HEADER_SIZE) {
+            return;
+        }
+        active.close();
+        activeGeneration++;
+        active = openSegment(activeGeneration);
+    }
+
+    /**
+     * All segments except the active one, oldest first.
+     */
+    @Nonnull
+    public synchronized List<Path> sealedSegments() throws IOException {
+        List<Path> sealed = new ArrayList<>();
+        for (Path segment : segments()) {
+            if (generationOf(segment) < activeGeneration) {
+                sealed.add(segment);
+            }
+        }
+        return sealed;
+    }
+
+    public synchronized void close() throws IOException {
+        if (active != null) {
+            active.close();
+            active = null;
+        }
+    }
+
+    /**
+     * Replays every segment on disk, oldest first. Used during startup recovery.
+     */
+    public void replayAll(@Nonnull BiConsumer<UUID, PlayerXPData> sink) throws IOException {
+        for (Path segment : segments()) {
+            replay(segment, sink);
+        }
+    }
+
+    /**
+     * Like {@link #replayAll(BiConsumer)}, but parses the segments in parallel on
+     * {@code executor}. Records still reach the sink one segment at a time, oldest
+     * first and on the calling thread, so the last record for a UUID still wins.
+     */
+    public void replayAll(@Nonnull BiConsumer<UUID, PlayerXPData> sink, @Nonnull Executor executor) throws IOException {
+        List<CompletableFuture<List<Map.Entry<UUID, PlayerXPData>>>> parsed = new ArrayList<>();
+        for (Path segment : segments()) {
+            parsed.add(CompletableFuture.supplyAsync(() -> {
+                List<Map.Entry<UUID, PlayerXPData>> records = new ArrayList<>();
+                try {
+                    replay(segment, (playerId, data) -> records.add(Map.entry(playerId, data)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return records;
+            }, executor));
+        }
+        for (CompletableFuture<List<Map.Entry<UUID, PlayerXPData>>> segment : parsed) {
+            List<Map.Entry<UUID, PlayerXPData>> records;
+            try {
+                records = segment.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException io) {
+                    throw io.getCause();
+                }
+                throw e;
+            }
+            for (Map.Entry<UUID, PlayerXPData> record : records) {
+                sink.accept(record.getKey(), record.getValue());
+            }
+        }
+    }
+
+    /**
+     * Replays one segment. A torn or corrupt tail (from a crash mid-append)
+     * is truncated away; everything before it is kept.
+     *
+     * @return the number of records replayed
+     */
+    public static int replay(@Nonnull Path segment, @Nonnull BiConsumer<UUID, PlayerXPData> sink) throws IOException {
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            boolean intXP = !readFully(channel, header) || header.getInt(0) != MAGIC || header.getShort(4) != VERSION;
+            long validEnd = intXP ? 0 : HEADER_SIZE;
+            channel.position(validEnd);
+
+            int recordSize = intXP ? RECORD_SIZE_INT_XP : RECORD_SIZE;
+            ByteBuffer record = ByteBuffer.allocate(recordSize);
+            CRC32 crc = new CRC32();
+            while (true) {
+                record.clear();
+                if (!readFully(channel, record)) {
+                    break;
+                }
+                crc.reset();
+                crc.update(record.array(), 0, recordSize - 4);
+                if ((int) crc.getValue() != record.getInt(recordSize - 4)) {
+                    break;
+                }
+                UUID playerId = new UUID(record.getLong(0), record.getLong(8));
+                PlayerXPData data = intXP
+                        ? new PlayerXPData(record.getInt(16), record.getInt(20), record.getInt(24))
+                        : new PlayerXPData(record.getInt(16), record.getLong(20), record.getLong(28));
+                sink.accept(playerId, data);
+                validEnd += recordSize;
+                count++;
+            }
+            if (validEnd < channel.size()) {
+                LOGGER.atWarning().log("Truncating " + (channel.size() - validEnd) + " corrupt bytes from " + segment.getFileName());
+                channel.truncate(validEnd);
+            }
+        }
+        return count;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private FileChannel openSegment(long generation) throws IOException {
+        FileChannel channel = FileChannel.open(dir.resolve(PREFIX + generation + SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putShort(VERSION);
+            header.putShort((short) 0);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        }
+        return channel;
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> found = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return found;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                if (generationOf(path) > 0) {
+                    found.add(path);
+                }
+            }
+        }
+        found.sort(Comparator.comparingLong(XPJournal::generationOf));
+        return found;
+    }
+
+    private static long generationOf(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
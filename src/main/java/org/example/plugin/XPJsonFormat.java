@@ -0,0 +1,136 @@
+package org.example.plugin;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Streaming reader and writer for the JSON form of the XP data (xp_data.json).
+ *
+ * The file is one object keyed by player UUID:
+ * <pre>
+ * { "uuid": { "level": 3, "currentXP": 40, "xpToNextLevel": 300 }, ... }
+ * </pre>
+ * Both directions go one record at a time through a buffered stream, so the
+ * memory used stays the same however many players the file holds; the file
+ * is never held as a whole String or parsed into a tree.
+ */
+public final class XPJsonFormat {
+
+    private XPJsonFormat() {
+    }
+
+    /**
+     * Reads every record in order, handing each to {@code consumer}. Unknown fields are skipped.
+     *
+     * @return the number of records read
+     * @throws IOException if the file is not valid JSON or holds a key that is not a UUID
+     */
+    public static int read(@Nonnull Path file, @Nonnull BiConsumer<UUID, PlayerXPData> consumer) throws IOException {
+        int count = 0;
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            if (reader.peek() == JsonToken.NULL) {
+                return 0; // What Gson wrote for an empty map in old versions
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                UUID playerId;
+                try {
+                    playerId = UUID.fromString(key);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid player UUID in " + file.getFileName() + ": " + key);
+                }
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+                consumer.accept(playerId, readRecord(reader));
+                count++;
+            }
+            reader.endObject();
+        }
+        return count;
+    }
+
+    private static PlayerXPData readRecord(JsonReader reader) throws IOException {
+        PlayerXPData data = new PlayerXPData();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "level" -> data.setLevel(reader.nextInt());
+                case "currentXP" -> data.setCurrentXP(reader.nextLong());
+                case "xpToNextLevel" -> data.setXpToNextLevel(reader.nextLong());
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return data;
+    }
+
+    /**
+     * Streams records into a new JSON file. Output goes to a temp file that {@link #commit()}
+     * forces to disk and moves over the target, so a crash mid-save leaves the old file intact;
+     * closing without committing discards it.
+     */
+    public static final class Writer implements Closeable {
+
+        private final Path file;
+        private final Path temp;
+        private final FileChannel channel;
+        private final JsonWriter json;
+        private boolean committed;
+
+        public Writer(@Nonnull Path file) throws IOException {
+            this.file = file;
+            this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.json = new JsonWriter(new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8)));
+            json.setIndent("  ");
+            json.beginObject();
+        }
+
+        public void add(@Nonnull UUID playerId, @Nonnull PlayerXPData data) throws IOException {
+            json.name(playerId.toString()).beginObject()
+                    .name("level").value(data.getLevel())
+                    .name("currentXP").value(data.getCurrentXP())
+                    .name("xpToNextLevel").value(data.getXpToNextLevel())
+                    .endObject();
+        }
+
+        /**
+         * Finishes the file, forces it to disk and atomically replaces the target.
+         */
+        public void commit() throws IOException {
+            json.endObject();
+            json.flush();
+            channel.force(true);
+            json.close();
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                channel.close(); // The JSON writer would refuse to close an unfinished document
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.server.core.Message;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Cache of the formatted strings shown on the XP bar.
+ * Level labels and the "/N XP" suffixes only depend on the level, so each
+ * one is built once and reused for every player at that level; small
+ * "+N XP" popups are shared the same way.
+ */
+public final class XPLabels {
+
+    private static final int CACHED_LEVELS = 1024;
+
+    // Filled lazily; a race just builds the same value twice
+    private static final Message[] LEVEL_LABELS = new Message[CACHED_LEVELS];
+    private static final Suffix[] XP_SUFFIXES = new Suffix[CACHED_LEVELS];
+
+    // "+N XP" popups for small gains, the common case when mining
+    private static final int CACHED_GAINS = 1024;
+    private static final Message[] GAIN_LABELS = new Message[CACHED_GAINS];
+
+    private XPLabels() {
+    }
+
+    /**
+     * Builds the labels for every cached level up to the curve's maximum, so the first
+     * players to reach each level don't pay for formatting them. Called during warm-up.
+     */
+    public static void prewarm(@Nonnull LevelCurve curve) {
+        int levels = Math.min(CACHED_LEVELS - 1, curve.maxLevel());
+        for (int level = 1; level <= levels; level++) {
+            levelLabel(level);
+            xpSuffix(curve.xpToNextLevel(level), level);
+        }
+    }
+
+    /**
+     * The "Level N" label.
+     */
+    @Nonnull
+    public static Message levelLabel(int level) {
+        if (level < 0 || level >= CACHED_LEVELS) {
+            return Message.raw("Level " + level);
+        }
+        Message label = LEVEL_LABELS[level];
+        if (label == null) {
+            label = Message.raw("Level " + level);
+            LEVEL_LABELS[level] = label;
+        }
+        return label;
+    }
+
+    /**
+     * The "current/needed XP" label. Only the current amount is formatted per call.
+     */
+    @Nonnull
+    public static Message xpLabel(long currentXP, long xpToNextLevel, int level) {
+        return Message.raw(currentXP + xpSuffix(xpToNextLevel, level));
+    }
+
+    /**
+     * The "+N XP" popup for a gain.
+     */
+    @Nonnull
+    public static Message gainLabel(long amount) {
+        if (amount < 0 || amount >= CACHED_GAINS) {
+            return Message.raw("+" + amount + " XP");
+        }
+        Message label = GAIN_LABELS[(int) amount];
+        if (label == null) {
+            label = Message.raw("+" + amount + " XP");
+            GAIN_LABELS[(int) amount] = label;
+        }
+        return label;
+    }
+
+    private static String xpSuffix(long xpToNextLevel, int level) {
+        if (level < 0 || level >= CACHED_LEVELS) {
+            return "/" + xpToNextLevel + " XP";
+        }
+        Suffix suffix = XP_SUFFIXES[level];
+        // Keyed by level, so re-check the requirement in case it differs from the cached one
+        if (suffix == null || suffix.xpToNextLevel != xpToNextLevel) {
+            suffix = new Suffix(xpToNextLevel, "/" + xpToNextLevel + " XP");
+            XP_SUFFIXES[level] = suffix;
+        }
+        return suffix.text;
+    }
+
+    private static final class Suffix {
+        final long xpToNextLevel;
+        final String text;
+
+        Suffix(long xpToNextLevel, String text) {
+            this.xpToNextLevel = xpToNextLevel;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.server.core.Message;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Players ranked by lifetime XP, kept as an order-statistic treap.
+ *
+ * Every node knows the size of its subtree, so both the rank of a player
+ * and the top N are answered by walking one root-to-leaf path, in expected
+ * O(log n), instead of sorting all records per request. Ties are broken by
+ * UUID so ranks are stable.
+ *
+ * XP changes are submitted without taking the tree lock: the latest total
+ * per player is parked in a concurrent map and folded into the tree by
+ * the next query or {@link #refresh()}, so the gameplay thread never waits
+ * on a reader.
+ */
+public final class XPLeaderboard {
+
+    // Rows in the HUD panel
+    static final int PANEL_SIZE = 5;
+
+    private final Map<UUID, Node> nodes = new HashMap<>();
+    private final Map<UUID, Long> pending = new ConcurrentHashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    // Top of the board at the last drain, to detect when the panel needs redrawing
+    private long[] lastTopTotals = new long[0];
+    private UUID[] lastTopIds = new UUID[0];
+    private boolean topChanged;
+
+    private volatile Panel panel = new Panel(0, new Message[0]);
+
+    /**
+     * One row of the leaderboard.
+     */
+    public static final class Entry {
+        private final UUID playerId;
+        private final long totalXP;
+        private final int rank;
+
+        Entry(UUID playerId, long totalXP, int rank) {
+            this.playerId = playerId;
+            this.totalXP = totalXP;
+            this.rank = rank;
+        }
+
+        @Nonnull
+        public UUID getPlayerId() {
+            return playerId;
+        }
+
+        public long getTotalXP() {
+            return totalXP;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+    }
+
+    /**
+     * The rendered top rows shown on every player's HUD. The version changes whenever the rows do.
+     */
+    public static final class Panel {
+        final int version;
+        final Message[] lines;
+
+        Panel(int version, Message[] lines) {
+            this.version = version;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Source of every stored total, for {@link #rebuild}.
+     */
+    public interface Source {
+        void forEach(@Nonnull ObjLongConsumer<UUID> sink) throws IOException;
+    }
+
+    private static final class Node {
+        final UUID playerId;
+        final long totalXP;
+        int priority;
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(UUID playerId, long totalXP, int priority) {
+            this.playerId = playerId;
+            this.totalXP = totalXP;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * Records a player's new total. Cheap and non-blocking; applied on the next drain.
+     */
+    public void submit(@Nonnull UUID playerId, long totalXP) {
+        pending.put(playerId, totalXP);
+    }
+
+    /**
+     * Folds submitted totals into the tree. Called periodically so the panel stays current.
+     *
+     * @return true if the top {@value #PANEL_SIZE} changed since the last call
+     */
+    public synchronized boolean refresh() {
+        drain();
+        boolean changed = topChanged;
+        topChanged = false;
+        return changed;
+    }
+
+    private void drain() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (UUID playerId : pending.keySet()) {
+            // remove() hands back the latest total, even if it changed since the key was listed
+            Long totalXP = pending.remove(playerId);
+            if (totalXP != null) {
+                put(playerId, totalXP);
+            }
+        }
+        checkTop();
+    }
+
+    /**
+     * Replaces the whole board with the totals from {@code source}, then applies anything
+     * submitted meanwhile. A player reported more than once keeps their last total.
+     *
+     * The totals are sorted once and the tree is built balanced from the sorted run, which
+     * is much cheaper than inserting them one by one.
+     */
+    public synchronized void rebuild(@Nonnull Source source) throws IOException {
+        Map<UUID, Long> totals = new HashMap<>();
+        source.forEach(totals::put);
+
+        Node[] sorted = new Node[totals.size()];
+        int[] priorities = new int[sorted.length];
+        int i = 0;
+        for (Map.Entry<UUID, Long> entry : totals.entrySet()) {
+            sorted[i] = new Node(entry.getKey(), entry.getValue(), 0);
+            priorities[i++] = random.nextInt();
+        }
+        Arrays.sort(sorted, (a, b) -> compare(a.totalXP, a.playerId, b));
+        // Highest priorities go to the shallowest nodes, so the balanced shape is also a valid heap
+        Arrays.sort(priorities);
+
+        nodes.clear();
+        root = sorted.length == 0 ? null : build(sorted, 0, sorted.length - 1);
+        assignPriorities(root, priorities);
+        for (Node node : sorted) {
+            nodes.put(node.playerId, node);
+        }
+        checkTop();
+        drain();
+    }
+
+    /**
+     * 1-based rank of a player, or 0 if they are not on the board.
+     */
+    public synchronized int rankOf(@Nonnull UUID playerId) {
+        drain();
+        Node node = nodes.get(playerId);
+        if (node == null) {
+            return 0;
+        }
+        int before = 0;
+        Node current = root;
+        while (current != null) {
+            int cmp = compare(node.totalXP, node.playerId, current);
+            if (cmp < 0) {
+                current = current.left;
+            } else {
+                before += size(current.left);
+                if (cmp == 0) {
+                    break;
+                }
+                before++;
+                current = current.right;
+            }
+        }
+        return before + 1;
+    }
+
+    /**
+     * The best {@code count} players, highest first.
+     */
+    @Nonnull
+    public synchronized List<Entry> top(int count) {
+        drain();
+        return topUnlocked(count);
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    @Nonnull
+    public Panel panel() {
+        return panel;
+    }
+
+    void publishPanel(@Nonnull Message[] lines) {
+        panel = new Panel(panel.version + 1, lines);
+    }
+
+    private List<Entry> topUnlocked(int count) {
+        List<Entry> result = new ArrayList<>(Math.min(count, nodes.size()));
+        Deque<Node> stack = new ArrayDeque<>();
+        Node current = root;
+        while ((current != null || !stack.isEmpty()) && result.size() < count) {
+            while (current != null) {
+                stack.push(current);
+                current = current.left;
+            }
+            current = stack.pop();
+            result.add(new Entry(current.playerId, current.totalXP, result.size() + 1));
+            current = current.right;
+        }
+        return result;
+    }
+
+    private void checkTop() {
+        List<Entry> top = topUnlocked(PANEL_SIZE);
+        boolean changed = top.size() != lastTopIds.length;
+        for (int i = 0; i < top.size() && !changed; i++) {
+            changed = !top.get(i).playerId.equals(lastTopIds[i]) || top.get(i).totalXP != lastTopTotals[i];
+        }
+        if (changed) {
+            lastTopIds = new UUID[top.size()];
+            lastTopTotals = new long[top.size()];
+            for (int i = 0; i < top.size(); i++) {
+                lastTopIds[i] = top.get(i).playerId;
+                lastTopTotals[i] = top.get(i).totalXP;
+            }
+            topChanged = true;
+        }
+    }
+
+    private static Node build(Node[] sorted, int from, int to) {
+        int mid = (from + to) >>> 1;
+        Node node = sorted[mid];
+        node.left = from < mid ? build(sorted, from, mid - 1) : null;
+        node.right = mid < to ? build(sorted, mid + 1, to) : null;
+        update(node);
+        return node;
+    }
+
+    // Hands out priorities level by level, highest first
+    private static void assignPriorities(Node root, int[] ascending) {
+        if (root == null) {
+            return;
+        }
+        Deque<Node> queue = new ArrayDeque<>();
+        queue.add(root);
+        int next = ascending.length;
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            node.priority = ascending[--next];
+            if (node.left != null) {
+                queue.add(node.left);
+            }
+            if (node.right != null) {
+                queue.add(node.right);
+            }
+        }
+    }
+
+    private void put(UUID playerId, long totalXP) {
+        Node old = nodes.get(playerId);
+        if (old != null) {
+            if (old.totalXP == totalXP) {
+                return;
+            }
+            root = delete(root, old.totalXP, playerId);
+        }
+        Node node = new Node(playerId, totalXP, random.nextInt());
+        nodes.put(playerId, node);
+        Node[] halves = split(root, totalXP, playerId);
+        root = merge(merge(halves[0], node), halves[1]);
+    }
+
+    // Splits into nodes ordered before the key and nodes at or after it
+    private static Node[] split(Node node, long totalXP, UUID playerId) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (compare(totalXP, playerId, node) > 0) {
+            Node[] halves = split(node.right, totalXP, playerId);
+            node.right = halves[0];
+            update(node);
+            halves[0] = node;
+            return halves;
+        }
+        Node[] halves = split(node.left, totalXP, playerId);
+        node.left = halves[1];
+        update(node);
+        halves[1] = node;
+        return halves;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node delete(Node node, long totalXP, UUID playerId) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(totalXP, playerId, node);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = delete(node.left, totalXP, playerId);
+        } else {
+            node.right = delete(node.right, totalXP, playerId);
+        }
+        update(node);
+        return node;
+    }
+
+    // Higher totals first, then UUID order
+    private static int compare(long totalXP, UUID playerId, Node node) {
+        if (totalXP != node.totalXP) {
+            return totalXP > node.totalXP ? -1 : 1;
+        }
+        return playerId.compareTo(node.playerId);
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -0,0 +1,271 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.HytaleServer;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Runtime counters, latency histograms and gauges for the XP system.
+ *
+ * Cheap enough to leave on: a counter is a {@link LongAdder} increment, a
+ * histogram record is one atomic add into a thread-striped bucket array,
+ * and gauges are only read when a report is built. Nothing allocates on
+ * the recording side. Reports are shown by /xpstats and logged periodically.
+ */
+public final class XPMetrics {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final XPMetrics INSTANCE = new XPMetrics();
+
+    private final List<Counter> counters = new CopyOnWriteArrayList<>();
+    private final List<Timer> timers = new CopyOnWriteArrayList<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final long startNanos = System.nanoTime();
+
+    // XP
+    final Counter xpGrants = counter("xp.grants");
+    final Counter xpGranted = counter("xp.granted");
+
+    // Mining
+    final Counter miningBreaks = counter("mining.breaks");
+    final Counter miningRewarded = counter("mining.rewarded");
+    final Timer miningHandle = timer("mining.handle");
+
+    // HUD
+    final Counter hudUpdates = counter("hud.updates");
+    final Counter hudSkipped = counter("hud.skipped");
+    final Counter levelUps = counter("hud.levelups");
+    final Counter notifications = counter("hud.notifications");
+    final Timer hudFlush = timer("hud.flush");
+
+    // Persistence
+    final Counter savedRecords = counter("save.records");
+    final Counter savedBytes = counter("save.bytes");
+    final Timer save = timer("save");
+    final Timer compaction = timer("compaction");
+    final Counter loadBytes = counter("load.bytes");
+    final Timer dataLoad = timer("load");
+    final Timer playerLoad = timer("load.player");
+
+    // Offline record cache
+    final Counter cacheHits = counter("cache.hits");
+    final Counter cacheMisses = counter("cache.misses");
+    final Counter cacheEvictions = counter("cache.evictions");
+    final Counter cacheWritebacks = counter("cache.writebacks");
+
+    // State of the last periodic log, to report the interval since
+    private long[] loggedCounters = new long[0];
+    private LatencyHistogram.Snapshot[] loggedTimers = new LatencyHistogram.Snapshot[0];
+    private long loggedNanos = startNanos;
+
+    private ScheduledFuture<?> logTask;
+
+    private XPMetrics() {
+    }
+
+    @Nonnull
+    public static XPMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * A monotonically increasing count.
+     */
+    public static final class Counter {
+        private final String name;
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * A latency histogram under a name.
+     */
+    public static final class Timer {
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        Timer(String name) {
+            this.name = name;
+        }
+
+        public void recordSince(long startNanos) {
+            histogram.recordSince(startNanos);
+        }
+
+        @Nonnull
+        public LatencyHistogram.Snapshot snapshot() {
+            return histogram.snapshot();
+        }
+    }
+
+    private Counter counter(String name) {
+        Counter counter = new Counter(name);
+        counters.add(counter);
+        return counter;
+    }
+
+    private Timer timer(String name) {
+        Timer timer = new Timer(name);
+        timers.add(timer);
+        return timer;
+    }
+
+    /**
+     * Registers a value that is read whenever a report is built. Replaces any gauge of the same name.
+     */
+    public void gauge(@Nonnull String name, @Nonnull LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Logs an interval summary every {@code intervalMs}; 0 disables it.
+     */
+    public synchronized void start(long intervalMs) {
+        if (logTask != null || intervalMs <= 0) {
+            return;
+        }
+        markLogged();
+        logTask = HytaleServer.SCHEDULED_EXECUTOR.scheduleWithFixedDelay(this::logSummary, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void shutdown() {
+        if (logTask != null) {
+            logTask.cancel(false);
+            logTask = null;
+        }
+    }
+
+    /**
+     * Everything since startup: counter totals and rates, latency percentiles and current gauges.
+     */
+    @Nonnull
+    public List<String> report() {
+        long[] zeroCounters = new long[counters.size()];
+        LatencyHistogram.Snapshot[] zeroTimers = new LatencyHistogram.Snapshot[timers.size()];
+        return describe(zeroCounters, zeroTimers, System.nanoTime() - startNanos);
+    }
+
+    private synchronized void logSummary() {
+        try {
+            long elapsed = System.nanoTime() - loggedNanos;
+            List<String> lines = describe(loggedCounters, loggedTimers, elapsed);
+            markLogged();
+            LOGGER.atInfo().log("XP metrics, last " + TimeUnit.NANOSECONDS.toSeconds(elapsed) + "s:\n  "
+                    + String.join("\n  ", lines));
+        } catch (RuntimeException e) {
+            LOGGER.atWarning().log("Failed to log XP metrics: " + e.getMessage());
+        }
+    }
+
+    private void markLogged() {
+        long[] counterValues = new long[counters.size()];
+        for (int i = 0; i < counterValues.length; i++) {
+            counterValues[i] = counters.get(i).get();
+        }
+        LatencyHistogram.Snapshot[] timerValues = new LatencyHistogram.Snapshot[timers.size()];
+        for (int i = 0; i < timerValues.length; i++) {
+            timerValues[i] = timers.get(i).snapshot();
+        }
+        loggedCounters = counterValues;
+        loggedTimers = timerValues;
+        loggedNanos = System.nanoTime();
+    }
+
+    private List<String> describe(long[] counterBase, LatencyHistogram.Snapshot[] timerBase, long elapsedNanos) {
+        double seconds = Math.max(1e-9, elapsedNanos / 1e9);
+        List<String> lines = new ArrayList<>();
+
+        // One line per group of counters (the part of the name before the dot)
+        StringBuilder line = new StringBuilder();
+        String group = null;
+        for (int i = 0; i < counters.size(); i++) {
+            Counter counter = counters.get(i);
+            long value = counter.get() - (i < counterBase.length ? counterBase[i] : 0);
+            String counterGroup = counter.name.substring(0, counter.name.indexOf('.'));
+            if (!counterGroup.equals(group) && line.length() > 0) {
+                lines.add(line.toString());
+                line.setLength(0);
+            } else if (line.length() > 0) {
+                line.append(", ");
+            }
+            group = counterGroup;
+            line.append(String.format(Locale.ROOT, "%s %d (%.1f/s)", counter.name, value, value / seconds));
+        }
+        if (line.length() > 0) {
+            lines.add(line.toString());
+        }
+
+        for (int i = 0; i < timers.size(); i++) {
+            Timer timer = timers.get(i);
+            LatencyHistogram.Snapshot snapshot = timer.snapshot();
+            if (i < timerBase.length && timerBase[i] != null) {
+                snapshot = snapshot.since(timerBase[i]);
+            }
+            if (snapshot.count() == 0) {
+                continue;
+            }
+            lines.add(String.format(Locale.ROOT, "%s: n=%d p50=%s p99=%s max=%s", timer.name, snapshot.count(),
+                    formatNanos(snapshot.percentile(50)), formatNanos(snapshot.percentile(99)), formatNanos(snapshot.max())));
+        }
+
+        if (!gauges.isEmpty()) {
+            line.setLength(0);
+            gauges.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(gauge -> {
+                if (line.length() > 0) {
+                    line.append(", ");
+                }
+                line.append(gauge.getKey()).append(' ').append(readGauge(gauge.getValue()));
+            });
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    private static long readGauge(LongSupplier gauge) {
+        try {
+            return gauge.getAsLong();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    @Nonnull
+    static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format(Locale.ROOT, "%.1fus", nanos / 1e3);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format(Locale.ROOT, "%.1fms", nanos / 1e6);
+        }
+        return String.format(Locale.ROOT, "%.2fs", nanos / 1e9);
+    }
+}
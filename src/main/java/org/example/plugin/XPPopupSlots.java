@@ -0,0 +1,124 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The fixed pool of popup labels (#Popup0..#Popup3) declared in ExperienceBar.ui.
+ *
+ * Showing a popup sets the text and visibility of the next slot, round-robin,
+ * and hiding it clears the visibility, so a popup is a couple of property
+ * updates riding on the HUD's regular flush instead of a new element, a
+ * removal and a scheduled task each. XP gains that arrive while the newest
+ * popup is still young are added to it ("+12 XP") rather than taking a slot.
+ *
+ * Not thread-safe; used under the owning HUD's monitor.
+ */
+final class XPPopupSlots {
+
+    static final int SLOTS = 4;
+    static final long DISPLAY_NANOS = TimeUnit.MILLISECONDS.toNanos(1200);
+    static final long MERGE_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(400);
+
+    private static final String[] TEXT_SELECTORS = new String[SLOTS];
+    private static final String[] VISIBLE_SELECTORS = new String[SLOTS];
+
+    static {
+        for (int i = 0; i < SLOTS; i++) {
+            TEXT_SELECTORS[i] = "#Popup" + i + ".TextSpans";
+            VISIBLE_SELECTORS[i] = "#Popup" + i + ".Visible";
+        }
+    }
+
+    // When each slot should be hidden; 0 while hidden
+    private final long[] hideAt = new long[SLOTS];
+    private int nextSlot;
+
+    // The newest XP popup, which later gains merge into while it is young
+    private int xpSlot = -1;
+    private long xpAmount;
+    private long xpShownAt;
+
+    /**
+     * Forgets what the client shows, after the document was rebuilt with every slot hidden.
+     */
+    void reset() {
+        for (int i = 0; i < SLOTS; i++) {
+            hideAt[i] = 0;
+        }
+        xpSlot = -1;
+    }
+
+    /**
+     * Whether {@link #update} has anything to send at {@code now}.
+     */
+    boolean hasChanges(long gained, @Nullable String text, long now) {
+        if (gained > 0 || text != null) {
+            return true;
+        }
+        for (long at : hideAt) {
+            if (at != 0 && at - now <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean anyVisible() {
+        for (long at : hideAt) {
+            if (at != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the popup changes: a merged or new XP popup, a text popup, and hiding expired slots.
+     */
+    void update(@Nonnull UICommandBuilder commandBuilder, long gained, @Nullable String text, long now) {
+        for (int i = 0; i < SLOTS; i++) {
+            if (hideAt[i] != 0 && hideAt[i] - now <= 0) {
+                commandBuilder.set(VISIBLE_SELECTORS[i], false);
+                hideAt[i] = 0;
+                if (i == xpSlot) {
+                    xpSlot = -1;
+                }
+            }
+        }
+
+        if (gained > 0) {
+            if (xpSlot >= 0 && now - xpShownAt < MERGE_WINDOW_NANOS) {
+                xpAmount += gained;
+                commandBuilder.set(TEXT_SELECTORS[xpSlot], XPLabels.gainLabel(xpAmount));
+                hideAt[xpSlot] = now + DISPLAY_NANOS;
+            } else {
+                xpSlot = show(commandBuilder, XPLabels.gainLabel(gained), now);
+                xpAmount = gained;
+                xpShownAt = now;
+            }
+        }
+
+        if (text != null) {
+            int slot = show(commandBuilder, Message.raw(text), now);
+            if (slot == xpSlot) {
+                xpSlot = -1;
+            }
+        }
+    }
+
+    private int show(UICommandBuilder commandBuilder, Message message, long now) {
+        int slot = nextSlot;
+        nextSlot = (nextSlot + 1) % SLOTS;
+        commandBuilder.set(TEXT_SELECTORS[slot], message);
+        if (hideAt[slot] == 0) {
+            commandBuilder.set(VISIBLE_SELECTORS[slot], true);
+        }
+        hideAt[slot] = now + DISPLAY_NANOS;
+        return slot;
+    }
+}
@@ -0,0 +1,381 @@
+package org.example.plugin;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read access to a snapshot written by {@link XPBinaryFormat} without loading it.
+ *
+ * Single-player lookups binary-search the sorted records (or the block index,
+ * for compressed snapshots) using positional reads, so only the requested
+ * record is ever materialized on the heap. Positional reads are used instead
+ * of a memory mapping because the compactor replaces the file while it is
+ * open, which a live mapping prevents on Windows.
+ *
+ * Safe for concurrent use.
+ */
+public final class XPSnapshotReader implements Closeable {
+
+    private static final int HEADER_SIZE = XPBinaryFormat.HEADER_SIZE;
+
+    @Nullable
+    private final FileChannel channel;
+    private final int count;
+    private final boolean compressed;
+
+    // Version 1 files hold XP as ints
+    private final boolean intXP;
+    private final int recordSize;
+
+    // Block index for compressed snapshots, kept on the heap (one entry per 1024 players)
+    private final long[] blockFirstMsb;
+    private final long[] blockFirstLsb;
+    private final long[] blockOffset;
+    private final int[] blockLength;
+    private final int[] blockRecords;
+
+    private XPSnapshotReader(@Nullable FileChannel channel, int count, boolean compressed, boolean intXP, int blockCount) {
+        this.channel = channel;
+        this.count = count;
+        this.compressed = compressed;
+        this.intXP = intXP;
+        this.recordSize = intXP ? XPBinaryFormat.RECORD_SIZE_INT_XP : XPBinaryFormat.RECORD_SIZE;
+        this.blockFirstMsb = new long[blockCount];
+        this.blockFirstLsb = new long[blockCount];
+        this.blockOffset = new long[blockCount];
+        this.blockLength = new int[blockCount];
+        this.blockRecords = new int[blockCount];
+    }
+
+    /**
+     * A reader with no records, for when no snapshot exists or it failed to open.
+     */
+    @Nonnull
+    public static XPSnapshotReader empty() {
+        return new XPSnapshotReader(null, 0, false, false, 0);
+    }
+
+    /**
+     * Opens a snapshot, or returns an empty reader if the file does not exist.
+     */
+    @Nonnull
+    public static XPSnapshotReader open(@Nonnull Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return empty();
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (!readFully(channel, header, 0) || header.getInt(0) != XPBinaryFormat.MAGIC) {
+                throw new IOException("Not an XP snapshot: " + file.getFileName());
+            }
+            short version = header.getShort(4);
+            if (version != XPBinaryFormat.VERSION && version != XPBinaryFormat.VERSION_INT_XP) {
+                throw new IOException("Unsupported XP snapshot version " + version + " in " + file.getFileName());
+            }
+            boolean compressed = (header.getShort(6) & XPBinaryFormat.FLAG_COMPRESSED) != 0;
+            int count = header.getInt(8);
+            int blockCount = compressed ? header.getInt(16) : 0;
+
+            boolean intXP = version == XPBinaryFormat.VERSION_INT_XP;
+            XPSnapshotReader reader = new XPSnapshotReader(channel, count, compressed, intXP, blockCount);
+            if (compressed) {
+                ByteBuffer index = ByteBuffer.allocate(blockCount * XPBinaryFormat.INDEX_ENTRY_SIZE);
+                if (!readFully(channel, index, HEADER_SIZE)) {
+                    throw new IOException("Truncated XP snapshot index in " + file.getFileName());
+                }
+                index.flip();
+                for (int i = 0; i < blockCount; i++) {
+                    reader.blockFirstMsb[i] = index.getLong();
+                    reader.blockFirstLsb[i] = index.getLong();
+                    reader.blockOffset[i] = index.getLong();
+                    reader.blockLength[i] = index.getInt();
+                    reader.blockRecords[i] = index.getInt();
+                }
+            } else if (channel.size() < HEADER_SIZE + (long) count * reader.recordSize) {
+                throw new IOException("Truncated XP snapshot: " + file.getFileName());
+            }
+            return reader;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Number of players in the snapshot.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Looks up one player, or returns null if they are not in the snapshot.
+     */
+    @Nullable
+    public PlayerXPData get(@Nonnull UUID playerId) throws IOException {
+        if (channel == null || count == 0) {
+            return null;
+        }
+        long msb = playerId.getMostSignificantBits();
+        long lsb = playerId.getLeastSignificantBits();
+
+        if (!compressed) {
+            ByteBuffer record = ByteBuffer.allocate(recordSize);
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                record.clear();
+                if (!readFully(channel, record, HEADER_SIZE + (long) mid * recordSize)) {
+                    throw new IOException("Truncated XP snapshot");
+                }
+                int cmp = compare(record.getLong(0), record.getLong(8), msb, lsb);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return decode(record, 0);
+                }
+            }
+            return null;
+        }
+
+        // Last block whose first key is <= the target
+        int low = 0;
+        int high = blockFirstMsb.length - 1;
+        int block = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(blockFirstMsb[mid], blockFirstLsb[mid], msb, lsb) <= 0) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (block < 0) {
+            return null;
+        }
+
+        ByteBuffer plain;
+        Inflater inflater = new Inflater();
+        try {
+            plain = inflateBlock(block, inflater);
+        } finally {
+            inflater.end();
+        }
+        low = 0;
+        high = blockRecords[block] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int at = mid * recordSize;
+            int cmp = compare(plain.getLong(at), plain.getLong(at + 8), msb, lsb);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return decode(plain, at);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Streams every record in UUID order. Only one chunk or block is in memory at a time.
+     */
+    public void forEach(@Nonnull BiConsumer<UUID, PlayerXPData> sink) throws IOException {
+        if (channel == null || count == 0) {
+            return;
+        }
+
+        if (!compressed) {
+            ByteBuffer chunk = ByteBuffer.allocate(2048 * recordSize);
+            int done = 0;
+            while (done < count) {
+                int records = Math.min(2048, count - done);
+                chunk.clear();
+                chunk.limit(records * recordSize);
+                if (!readFully(channel, chunk, HEADER_SIZE + (long) done * recordSize)) {
+                    throw new IOException("Truncated XP snapshot");
+                }
+                for (int i = 0; i < records; i++) {
+                    int at = i * recordSize;
+                    sink.accept(new UUID(chunk.getLong(at), chunk.getLong(at + 8)), decode(chunk, at));
+                }
+                done += records;
+            }
+            return;
+        }
+
+        Inflater inflater = new Inflater();
+        try {
+            for (int block = 0; block < blockRecords.length; block++) {
+                ByteBuffer plain = inflateBlock(block, inflater);
+                for (int i = 0; i < blockRecords[block]; i++) {
+                    int at = i * recordSize;
+                    sink.accept(new UUID(plain.getLong(at), plain.getLong(at + 8)), decode(plain, at));
+                }
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Streams up to {@code limit} records with UUIDs strictly after {@code after} (or from the
+     * start if null), in UUID order. Lets long scans resume by key, so a compaction replacing
+     * the snapshot between calls neither skips nor repeats players.
+     *
+     * @return the number of records passed to the sink
+     */
+    public int forEachAfter(@Nullable UUID after, int limit, @Nonnull BiConsumer<UUID, PlayerXPData> sink) throws IOException {
+        if (channel == null || count == 0 || limit <= 0) {
+            return 0;
+        }
+
+        if (!compressed) {
+            int start = after == null ? 0 : firstIndexAfter(after.getMostSignificantBits(), after.getLeastSignificantBits());
+            int records = Math.min(limit, count - start);
+            if (records <= 0) {
+                return 0;
+            }
+            ByteBuffer chunk = ByteBuffer.allocate(records * recordSize);
+            if (!readFully(channel, chunk, HEADER_SIZE + (long) start * recordSize)) {
+                throw new IOException("Truncated XP snapshot");
+            }
+            for (int i = 0; i < records; i++) {
+                int at = i * recordSize;
+                sink.accept(new UUID(chunk.getLong(at), chunk.getLong(at + 8)), decode(chunk, at));
+            }
+            return records;
+        }
+
+        // Start in the last block whose first key is <= after; earlier blocks hold only smaller keys
+        int block = 0;
+        if (after != null) {
+            int low = 0;
+            int high = blockFirstMsb.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (compare(blockFirstMsb[mid], blockFirstLsb[mid], after.getMostSignificantBits(), after.getLeastSignificantBits()) <= 0) {
+                    block = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+        }
+
+        int delivered = 0;
+        Inflater inflater = new Inflater();
+        try {
+            for (; block < blockRecords.length && delivered < limit; block++) {
+                ByteBuffer plain = inflateBlock(block, inflater);
+                for (int i = 0; i < blockRecords[block] && delivered < limit; i++) {
+                    int at = i * recordSize;
+                    long msb = plain.getLong(at);
+                    long lsb = plain.getLong(at + 8);
+                    if (after != null && compare(msb, lsb, after.getMostSignificantBits(), after.getLeastSignificantBits()) <= 0) {
+                        continue;
+                    }
+                    sink.accept(new UUID(msb, lsb), decode(plain, at));
+                    delivered++;
+                }
+            }
+        } finally {
+            inflater.end();
+        }
+        return delivered;
+    }
+
+    // Index of the first flat record with a key greater than the given one (count if none)
+    private int firstIndexAfter(long msb, long lsb) throws IOException {
+        ByteBuffer key = ByteBuffer.allocate(16);
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            key.clear();
+            if (!readFully(channel, key, HEADER_SIZE + (long) mid * recordSize)) {
+                throw new IOException("Truncated XP snapshot");
+            }
+            if (compare(key.getLong(0), key.getLong(8), msb, lsb) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private ByteBuffer inflateBlock(int block, Inflater inflater) throws IOException {
+        ByteBuffer compressedBytes = ByteBuffer.allocate(blockLength[block]);
+        if (!readFully(channel, compressedBytes, blockOffset[block])) {
+            throw new IOException("Truncated XP snapshot block " + block);
+        }
+        compressedBytes.flip();
+
+        ByteBuffer plain = ByteBuffer.allocate(blockRecords[block] * recordSize);
+        inflater.reset();
+        inflater.setInput(compressedBytes);
+        try {
+            while (plain.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(plain) == 0 && inflater.needsInput()) {
+                    break;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt XP snapshot block " + block + ": " + e.getMessage(), e);
+        }
+        if (plain.hasRemaining()) {
+            throw new IOException("Truncated XP snapshot block " + block);
+        }
+        return plain;
+    }
+
+    private PlayerXPData decode(ByteBuffer buffer, int at) {
+        if (intXP) {
+            return new PlayerXPData(buffer.getInt(at + 16), buffer.getInt(at + 20), buffer.getInt(at + 24));
+        }
+        return new PlayerXPData(buffer.getInt(at + 16), buffer.getLong(at + 20), buffer.getLong(at + 28));
+    }
+
+    // Same ordering as UUID.compareTo (signed msb, then signed lsb)
+    private static int compare(long msbA, long lsbA, long msbB, long lsbB) {
+        int cmp = Long.compare(msbA, msbB);
+        return cmp != 0 ? cmp : Long.compare(lsbA, lsbB);
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
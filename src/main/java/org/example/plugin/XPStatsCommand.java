@@ -0,0 +1,48 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.basecommands.CommandBase;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Admin command to show the XP system's runtime metrics: event counts and rates,
+ * save/load and update latencies, store sizes, and who receives the most HUD updates.
+ * Usage: /xpstats
+ */
+public class XPStatsCommand extends CommandBase {
+
+    private static final int TOP_HUDS = 5;
+
+    public XPStatsCommand() {
+        super("xpstats", "Shows XP system metrics.");
+        // No permission group: operators only
+    }
+
+    @Override
+    protected void executeSync(@Nonnull CommandContext ctx) {
+        ctx.sendMessage(Message.raw("XP metrics since startup:"));
+        for (String line : XPMetrics.get().report()) {
+            ctx.sendMessage(Message.raw(line));
+        }
+
+        List<ExperienceBarHud> huds = new ArrayList<>(ExperienceManager.getInstance().xpBars());
+        if (huds.isEmpty()) {
+            return;
+        }
+        long total = 0;
+        for (ExperienceBarHud hud : huds) {
+            total += hud.getUpdatesSent();
+        }
+        ctx.sendMessage(Message.raw("HUD updates per online player: " + (total / huds.size()) + " on average"));
+
+        huds.sort(Comparator.comparingLong(ExperienceBarHud::getUpdatesSent).reversed());
+        for (ExperienceBarHud hud : huds.subList(0, Math.min(TOP_HUDS, huds.size()))) {
+            ctx.sendMessage(Message.raw("  " + hud.getPlayerRef().getUsername() + ": " + hud.getUpdatesSent()));
+        }
+    }
+}
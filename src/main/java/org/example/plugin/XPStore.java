@@ -0,0 +1,114 @@
+package org.example.plugin;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * Where stored XP records live, behind {@link ExperienceManager}.
+ *
+ * The manager keeps every record it hands to {@link #upsertBatch} in its own
+ * pending table until the store reports it {@linkplain Listener#settled
+ * settled}, so a store is free to make writes durable first and readable
+ * later (the binary store only folds its journal into the snapshot on
+ * compaction). Until then lookups go to the pending table, and loads and
+ * iteration here only need to cover settled records.
+ *
+ * Called from several threads at once: loads from the loader pool, upserts
+ * from the write-behind thread, iteration from bulk updates and leaderboard
+ * builds.
+ */
+public interface XPStore extends Closeable {
+
+    /**
+     * Told which upserted records the store now serves by itself.
+     */
+    interface Listener {
+        void settled(@Nonnull Map<UUID, PlayerXPData> records);
+    }
+
+    /**
+     * A short name for logs, e.g. "sqlite".
+     */
+    @Nonnull
+    String name();
+
+    /**
+     * When this store's files were last written, in epoch millis, or 0 if it has none.
+     * Used to find the data to import when switching stores.
+     */
+    long lastModified();
+
+    /**
+     * Opens the store, creating it if missing. Records written but not yet settled by a
+     * previous run are handed to {@code unsettled}; {@code parallel} may be used to read them.
+     */
+    void open(@Nonnull Listener listener, @Nonnull BiConsumer<UUID, PlayerXPData> unsettled,
+              @Nonnull Executor parallel) throws IOException;
+
+    /**
+     * A player's settled record, or null if there is none.
+     */
+    @Nullable
+    PlayerXPData load(@Nonnull UUID playerId) throws IOException;
+
+    /**
+     * The settled records of several players; players with no record are left out.
+     */
+    @Nonnull
+    default Map<UUID, PlayerXPData> loadBatch(@Nonnull Collection<UUID> playerIds) throws IOException {
+        Map<UUID, PlayerXPData> records = new HashMap<>();
+        for (UUID playerId : playerIds) {
+            PlayerXPData data = load(playerId);
+            if (data != null) {
+                records.put(playerId, data);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Durably writes the records, replacing any stored for the same players.
+     */
+    void upsertBatch(@Nonnull Map<UUID, PlayerXPData> records) throws IOException;
+
+    /**
+     * Hands up to {@code limit} settled records after {@code after} (from the start if null)
+     * to {@code consumer}, in UUID order.
+     */
+    void forEachAfter(@Nullable UUID after, int limit, @Nonnull BiConsumer<UUID, PlayerXPData> consumer) throws IOException;
+
+    /**
+     * Hands every settled record to {@code consumer}, in whatever order is cheapest.
+     */
+    void forEach(@Nonnull BiConsumer<UUID, PlayerXPData> consumer) throws IOException;
+
+    /**
+     * Number of settled records.
+     */
+    int size() throws IOException;
+
+    /**
+     * Bytes used on disk, for metrics.
+     */
+    long sizeOnDisk();
+
+    /**
+     * Settles everything upserted so far and waits for it. Stores that settle on write do nothing.
+     */
+    default void settle() throws IOException, InterruptedException {
+    }
+
+    /**
+     * Settles what it can and releases the files. Called once, after the last upsert.
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,171 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.HytaleServer;
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Target selectors for the XP commands, and running an action on every target.
+ *
+ * Selectors: {@code @a} (everyone online), {@code @w} (everyone in your world),
+ * {@code @w:<world>} (everyone in the named world), or a player's name or UUID.
+ *
+ * Targets are split by world and each world's share runs on that world's own
+ * thread, {@link #TARGETS_PER_TICK} players per tick, so a command aimed at
+ * thousands of players neither holds up the command thread nor changes every
+ * HUD in the same tick.
+ */
+final class XPTargets {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    // Needed to aim an XP command at anyone but yourself
+    static final String PERMISSION = "exampleplugin.command.xp.others";
+
+    // Players handled per world per tick; HUD changes from one slice go out in the next flush
+    static final int TARGETS_PER_TICK = 256;
+
+    // One server tick, between slices
+    private static final long TICK_MS = 50;
+
+    private XPTargets() {
+    }
+
+    /**
+     * The online players {@code selector} matches, or null after telling the sender why there are none
+     * (including when they lack {@link #PERMISSION}).
+     */
+    @Nullable
+    static List<Player> resolve(@Nonnull CommandContext ctx, @Nonnull String selector) {
+        if (!ctx.sender().hasPermission(PERMISSION)) {
+            ctx.sendMessage(Message.raw("You don't have permission to target other players."));
+            return null;
+        }
+        Collection<Player> online = ExperienceManager.getInstance().onlinePlayers();
+        List<Player> targets = new ArrayList<>();
+        if (selector.equals("@a")) {
+            targets.addAll(online);
+        } else if (selector.equals("@w") || selector.startsWith("@w:")) {
+            String worldName;
+            if (selector.length() > 3) {
+                worldName = selector.substring(3);
+            } else {
+                Player sender = ctx.isPlayer() ? ctx.senderAs(Player.class) : null;
+                World world = sender != null ? sender.getWorld() : null;
+                if (world == null) {
+                    ctx.sendMessage(Message.raw("Use @w:<world> from the console."));
+                    return null;
+                }
+                worldName = world.getName();
+            }
+            for (Player player : online) {
+                World world = player.getWorld();
+                if (world != null && world.getName().equalsIgnoreCase(worldName)) {
+                    targets.add(player);
+                }
+            }
+        } else {
+            UUID playerId = parseUUID(selector);
+            for (Player player : online) {
+                PlayerRef playerRef = player.getPlayerRef();
+                if (playerId != null ? playerId.equals(playerRef.getUuid()) : selector.equalsIgnoreCase(playerRef.getUsername())) {
+                    targets.add(player);
+                    break;
+                }
+            }
+        }
+
+        if (targets.isEmpty()) {
+            ctx.sendMessage(Message.raw("No online players match " + selector + "."));
+            return null;
+        }
+        return targets;
+    }
+
+    @Nullable
+    private static UUID parseUUID(@Nonnull String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs {@code action} for every target on its world's thread, a slice per tick.
+     * Completes with the number of targets it ran for.
+     */
+    @Nonnull
+    static CompletableFuture<Integer> forEach(@Nonnull Collection<Player> targets, @Nonnull Consumer<Player> action) {
+        Map<World, List<Player>> byWorld = new HashMap<>();
+        for (Player player : targets) {
+            byWorld.computeIfAbsent(player.getWorld(), world -> new ArrayList<>()).add(player);
+        }
+
+        List<CompletableFuture<Integer>> worlds = new ArrayList<>(byWorld.size());
+        for (Map.Entry<World, List<Player>> entry : byWorld.entrySet()) {
+            // A player between worlds has none; their share runs right here
+            Executor executor = entry.getKey() != null ? entry.getKey() : Runnable::run;
+            CompletableFuture<Integer> done = new CompletableFuture<>();
+            runSlice(executor, entry.getValue(), 0, 0, action, done);
+            worlds.add(done);
+        }
+        return CompletableFuture.allOf(worlds.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            int count = 0;
+            for (CompletableFuture<Integer> world : worlds) {
+                count += world.join();
+            }
+            return count;
+        });
+    }
+
+    private static void runSlice(@Nonnull Executor world, @Nonnull List<Player> players, int from, int applied,
+                                 @Nonnull Consumer<Player> action, @Nonnull CompletableFuture<Integer> done) {
+        try {
+            world.execute(() -> {
+                int to = Math.min(from + TARGETS_PER_TICK, players.size());
+                int count = applied;
+                for (int i = from; i < to; i++) {
+                    try {
+                        action.accept(players.get(i));
+                        count++;
+                    } catch (RuntimeException e) {
+                        LOGGER.atWarning().log("Failed to update XP of " + players.get(i).getPlayerRef().getUsername() + ": " + e.getMessage());
+                    }
+                }
+                if (to == players.size()) {
+                    done.complete(count);
+                    return;
+                }
+                int next = count;
+                try {
+                    HytaleServer.SCHEDULED_EXECUTOR.schedule(() -> runSlice(world, players, to, next, action, done),
+                            TICK_MS, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    done.complete(next); // Server shutting down
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The world shut down; whoever is left there has gone with it
+            done.complete(applied);
+        }
+    }
+}
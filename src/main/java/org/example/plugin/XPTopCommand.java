@@ -0,0 +1,68 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.protocol.GameMode;
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.arguments.system.DefaultArg;
+import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
+import com.hypixel.hytale.server.core.command.system.basecommands.CommandBase;
+import com.hypixel.hytale.server.core.entity.entities.Player;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Command to list the players with the most XP.
+ * Usage: /xptop [count]
+ */
+public class XPTopCommand extends CommandBase {
+
+    private static final int MAX_COUNT = 50;
+
+    @Nonnull
+    private final DefaultArg<Integer> countArg = this.withDefaultArg(
+            "count",
+            "Number of players to list",
+            ArgTypes.INTEGER,
+            10,  // Default count
+            "Default: 10 players"
+    );
+
+    public XPTopCommand() {
+        super("xptop", "Lists the players with the most XP. Usage: /xptop [count]");
+        this.setPermissionGroup(GameMode.Adventure); // Anyone can use it
+    }
+
+    @Override
+    protected void executeSync(@Nonnull CommandContext ctx) {
+        int count = countArg.get(ctx);
+        if (count <= 0) {
+            ctx.sendMessage(Message.raw("Count must be positive!"));
+            return;
+        }
+        count = Math.min(count, MAX_COUNT);
+
+        ExperienceManager xpManager = ExperienceManager.getInstance();
+        LevelCurve curve = xpManager.getLevelCurve();
+        List<XPLeaderboard.Entry> top = xpManager.getTopPlayers(count);
+        if (top.isEmpty()) {
+            ctx.sendMessage(Message.raw("Nobody has any XP yet."));
+            return;
+        }
+
+        ctx.sendMessage(Message.raw("Top " + top.size() + " players by XP:"));
+        for (XPLeaderboard.Entry entry : top) {
+            ctx.sendMessage(Message.raw(entry.getRank() + ". " + xpManager.displayName(entry.getPlayerId())
+                    + " - Level " + curve.levelForTotalXP(entry.getTotalXP()) + " (" + entry.getTotalXP() + " XP)"));
+        }
+
+        if (ctx.isPlayer()) {
+            UUID playerId = ctx.senderAs(Player.class).getPlayerRef().getUuid();
+            int rank = xpManager.getRank(playerId);
+            if (rank > 0) {
+                ctx.sendMessage(Message.raw("Your rank: #" + rank + " of " + xpManager.getLeaderboardSize()));
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.plugin;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background writer for XP data.
+ * Gameplay threads only mark players dirty; a dedicated thread coalesces
+ * those marks and upserts just the changed players into the {@link XPStore}
+ * on a fixed interval, so disk I/O never happens on the world or event threads.
+ */
+public class XPWriteBehind {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+    private static final XPMetrics METRICS = XPMetrics.get();
+
+    private final ExperienceManager manager;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ExamplePlugin-XPWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Players whose data changed since the last flush
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+
+    // Set by start(); flushes before then keep players dirty
+    private volatile XPStore store;
+
+    // Set while a requested settle is queued, so repeated requests collapse into one
+    private final AtomicBoolean settleRequested = new AtomicBoolean(false);
+
+    public XPWriteBehind(@Nonnull ExperienceManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Starts the periodic flush into {@code store}.
+     */
+    public void start(@Nonnull XPStore store, long flushIntervalMs) {
+        this.store = store;
+        executor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Marks a player's data as needing to be written. Cheap and non-blocking.
+     */
+    public void markDirty(@Nonnull UUID playerId) {
+        dirty.add(playerId);
+    }
+
+    /**
+     * Upserts every dirty player's current record into the store.
+     * Synchronized so a caller-thread flush cannot interleave with the background one.
+     */
+    public synchronized void flush() throws IOException {
+        XPStore target = store;
+        if (target == null || dirty.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        // Drain before reading state so changes made during the write are picked up next time
+        Map<UUID, PlayerXPData> batch = new HashMap<>();
+        for (Iterator<UUID> it = dirty.iterator(); it.hasNext(); ) {
+            UUID playerId = it.next();
+            it.remove();
+            PlayerXPData data = manager.currentRecord(playerId);
+            if (data != null) {
+                batch.put(playerId, data);
+            }
+        }
+
+        try {
+            target.upsertBatch(batch);
+        } catch (IOException e) {
+            // Put them back so the next flush retries
+            dirty.addAll(batch.keySet());
+            throw e;
+        }
+        METRICS.save.recordSince(start);
+        METRICS.savedRecords.add(batch.size());
+    }
+
+    /**
+     * Flushes and waits until the store has settled everything written. Lets long bulk
+     * updates bound how many records wait in memory.
+     */
+    public void flushAndSettle() throws IOException, InterruptedException {
+        flush();
+        XPStore target = store;
+        if (target != null) {
+            target.settle();
+        }
+    }
+
+    /**
+     * Queues {@link #flushAndSettle()} on the writer thread unless one is already waiting.
+     *
+     * @return whether a new one was queued
+     */
+    public boolean requestSettle() {
+        if (!settleRequested.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                settleRequested.set(false);
+                try {
+                    flushAndSettle();
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.atWarning().log("Requested XP write-back failed: " + e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return false; // Shutting down; the final flush covers it
+        }
+        return true;
+    }
+
+    /**
+     * Players waiting for the next flush.
+     */
+    public int dirtyCount() {
+        return dirty.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.atWarning().log("Background XP flush failed (" + dirty.size() + " dirty players): " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the writer after a final flush. The store is closed by the manager afterwards.
+     */
+    public void shutdown() {
+        try {
+            executor.submit(() -> {
+                flush();
+                return null;
+            }).get(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            LOGGER.atWarning().log("Final XP flush did not complete: " + e.getMessage());
+        }
+        executor.shutdownNow();
+    }
+}